@@ -23,7 +23,8 @@ public @interface ProtobufGetter {
             ProtobufRepeatedMixin.class,
             ProtobufMapMixin.class,
             ProtobufFutureMixin.class,
-            ProtobufLazyMixin.class
+            ProtobufLazyMixin.class,
+            ProtobufArrayMixin.class
     };
 
     boolean packed() default false;
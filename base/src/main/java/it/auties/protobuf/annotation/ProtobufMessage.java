@@ -12,4 +12,8 @@ public @interface ProtobufMessage {
     String[] reservedNames() default {};
     int[] reservedIndexes() default {};
     ProtobufReservedRange[] reservedRanges() default {};
+
+    // Whether the spec should also provide decodeInto(target, stream), which decodes a message into an existing instance so it can be reused
+    // Only classes can be mutable: every property needs a non-private setter, or must be a non-private, non-final field
+    boolean mutable() default false;
 }
@@ -27,7 +27,8 @@ public @interface ProtobufProperty {
             ProtobufRepeatedMixin.class,
             ProtobufMapMixin.class,
             ProtobufFutureMixin.class,
-            ProtobufLazyMixin.class
+            ProtobufLazyMixin.class,
+            ProtobufArrayMixin.class
     };
 
     boolean required() default false;
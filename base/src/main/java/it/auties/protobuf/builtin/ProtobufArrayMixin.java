@@ -0,0 +1,41 @@
+package it.auties.protobuf.builtin;
+
+import it.auties.protobuf.annotation.ProtobufDefaultValue;
+import it.auties.protobuf.annotation.ProtobufMixin;
+
+// Default values for repeated properties backed by a primitive array
+// The decoder never writes into the array it's given, it always returns a new one, so the empty arrays can be shared
+@SuppressWarnings("unused")
+@ProtobufMixin
+public class ProtobufArrayMixin {
+    private static final int[] EMPTY_INT_ARRAY = new int[0];
+    private static final long[] EMPTY_LONG_ARRAY = new long[0];
+    private static final float[] EMPTY_FLOAT_ARRAY = new float[0];
+    private static final double[] EMPTY_DOUBLE_ARRAY = new double[0];
+    private static final boolean[] EMPTY_BOOLEAN_ARRAY = new boolean[0];
+
+    @ProtobufDefaultValue
+    public static int[] newIntArray() {
+        return EMPTY_INT_ARRAY;
+    }
+
+    @ProtobufDefaultValue
+    public static long[] newLongArray() {
+        return EMPTY_LONG_ARRAY;
+    }
+
+    @ProtobufDefaultValue
+    public static float[] newFloatArray() {
+        return EMPTY_FLOAT_ARRAY;
+    }
+
+    @ProtobufDefaultValue
+    public static double[] newDoubleArray() {
+        return EMPTY_DOUBLE_ARRAY;
+    }
+
+    @ProtobufDefaultValue
+    public static boolean[] newBooleanArray() {
+        return EMPTY_BOOLEAN_ARRAY;
+    }
+}
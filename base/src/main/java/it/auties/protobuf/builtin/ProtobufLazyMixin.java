@@ -22,6 +22,16 @@ public class ProtobufLazyMixin {
         return value == null ? null : ProtobufString.wrap(value);
     }
 
+    // CharSequence properties hold the ProtobufString that was decoded, which is written back without being decoded or encoded again
+    @ProtobufSerializer
+    public static ProtobufString toValue(CharSequence value) {
+        return switch (value) {
+            case null -> null;
+            case ProtobufString protobufString -> protobufString;
+            default -> ProtobufString.wrap(value.toString());
+        };
+    }
+
     @ProtobufDeserializer(builderBehaviour = ADD)
     public static byte[] ofNullable(ByteBuffer value) {
         if(value == null) {
@@ -37,8 +37,21 @@ public class ProtobufMapMixin {
         return new TreeMap<>();
     }
 
+    // A field can be repeated, so a value read for an index that was already seen is collected with the previous ones in a list
+    // readUnknown never returns a list, so a list value always means that the index was repeated
     @ProtobufUnknownFields.Setter
+    @SuppressWarnings("unchecked")
     public static void addUnknownField(Map<Integer, Object> map, Integer name, Object value) {
-        map.put(name, value);
+        map.merge(name, value, (oldValue, newValue) -> {
+            if(oldValue instanceof List<?> oldValues) {
+                ((List<Object>) oldValues).add(newValue);
+                return oldValues;
+            }
+
+            var values = new ArrayList<>();
+            values.add(oldValue);
+            values.add(newValue);
+            return values;
+        });
     }
 }
@@ -0,0 +1,28 @@
+package it.auties.protobuf.builtin;
+
+import it.auties.protobuf.annotation.ProtobufDeserializer;
+import it.auties.protobuf.annotation.ProtobufMixin;
+import it.auties.protobuf.annotation.ProtobufSerializer;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufStringCache;
+
+import static it.auties.protobuf.annotation.ProtobufDeserializer.BuilderBehaviour.ADD;
+
+// Opt-in replacement for ProtobufLazyMixin for String properties whose values repeat a lot
+// Decoded values are resolved through ProtobufStringCache.shared(), so equal values share the same String instance
+// It's not a default mixin: to use it, replace ProtobufLazyMixin in the mixins of the property, keeping the other ones it needs, for example
+//     @ProtobufProperty(index = 1, type = ProtobufType.STRING, mixins = {ProtobufStringCacheMixin.class, ProtobufRepeatedMixin.class})
+//     List<String> countries
+@SuppressWarnings("unused")
+@ProtobufMixin
+public class ProtobufStringCacheMixin {
+    @ProtobufDeserializer(builderBehaviour = ADD)
+    public static String ofNullable(ProtobufString value) {
+        return ProtobufStringCache.shared().get(value);
+    }
+
+    @ProtobufSerializer
+    public static ProtobufString toValue(String value) {
+        return value == null ? null : ProtobufString.wrap(value);
+    }
+}
@@ -0,0 +1,96 @@
+package it.auties.protobuf.model;
+
+import it.auties.protobuf.stream.ProtobufInputStream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A model that represents a message property that is decoded the first time it's accessed
+ * A lazy value created by the deserializer keeps a view of the encoded message: if the input is a byte[] or a ByteBuffer, no bytes are copied
+ * If the value is never accessed, the serializer writes the encoded message back as it is, otherwise the value is serialized like any other message
+ * This means that the changes made to a mutable value are not lost, but also that unknown fields are dropped once the value is accessed
+ * Accessing the value while the enclosing message is being serialized is not supported
+ */
+@SuppressWarnings({
+        "unused", // Methods are used by the generated code
+        "NullableProblems" // Don't want to provide annotations for null properties
+})
+public final class ProtobufLazy<T> {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(ProtobufLazy.class, "value", Object.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    private final ByteBuffer encoded;
+    private final Function<ProtobufInputStream, T> decoder;
+    private T value;
+    private ProtobufLazy(ByteBuffer encoded, Function<ProtobufInputStream, T> decoder, T value) {
+        this.encoded = encoded;
+        this.decoder = decoder;
+        this.value = value;
+    }
+
+    public static <T> ProtobufLazy<T> of(T value) {
+        return new ProtobufLazy<>(null, null, value);
+    }
+
+    public static <T> ProtobufLazy<T> lazy(ByteBuffer encoded, Function<ProtobufInputStream, T> decoder) {
+        Objects.requireNonNull(encoded, "encoded cannot be null");
+        Objects.requireNonNull(decoder, "decoder cannot be null");
+        return new ProtobufLazy<>(encoded, decoder, null);
+    }
+
+    // Lock free: threads that race on the first access may all decode the message, but only the first value to be published is kept,
+    // so every caller sees the same instance, which matters for mutable values
+    // The value is published with a compare and set, so its fields are visible to the threads that read it
+    @SuppressWarnings("unchecked")
+    public T get() {
+        var result = (T) VALUE.getAcquire(this);
+        if(result != null || encoded == null) {
+            return result;
+        }
+
+        // Heap buffers are decoded from their array, which is faster
+        var input = encoded.hasArray()
+                ? ProtobufInputStream.fromBytes(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining())
+                : ProtobufInputStream.fromBuffer(encoded.duplicate());
+        var decoded = decoder.apply(input);
+        var witness = (T) VALUE.compareAndExchange(this, null, decoded);
+        return witness != null ? witness : decoded;
+    }
+
+    public boolean isDecoded() {
+        return encoded == null || VALUE.getAcquire(this) != null;
+    }
+
+    // Returns a view of the encoded message if the value was never accessed, otherwise null
+    // Used by the generated code to decide whether the message can be copied instead of serialized
+    public ByteBuffer encoded() {
+        return isDecoded() ? null : encoded.duplicate();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ProtobufLazy<?> that
+                && Objects.equals(get(), that.get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+
+    @Override
+    public String toString() {
+        return isDecoded() ? "ProtobufLazy[value=" + get() + "]" : "ProtobufLazy[encoded=" + encoded.remaining() + " bytes]";
+    }
+}
@@ -0,0 +1,62 @@
+package it.auties.protobuf.model;
+
+import java.util.Arrays;
+
+/**
+ * A model that represents the set of field indexes to decode from a message
+ * The generated decode(ProtobufInputStream, ProtobufProjection) methods skip the fields that are not part of the projection, so no value is allocated for them:
+ * the corresponding properties keep their default value
+ * Unknown fields are never part of a projection
+ */
+@SuppressWarnings("unused")
+public final class ProtobufProjection {
+    private static final int MAX_LOW_INDEX = Long.SIZE;
+
+    private final long lowIndexes; // Bit i is set if index i is selected, most messages only use indexes in this range
+    private final int[] highIndexes; // The selected indexes that don't fit in lowIndexes, sorted so they can be binary searched
+    private ProtobufProjection(long lowIndexes, int[] highIndexes) {
+        this.lowIndexes = lowIndexes;
+        this.highIndexes = highIndexes;
+    }
+
+    public static ProtobufProjection of(int... indexes) {
+        var lowIndexes = 0L;
+        var highIndexes = new int[indexes.length];
+        var highIndexesLength = 0;
+        for(var index : indexes) {
+            if(index < 0) {
+                throw new IllegalArgumentException("Invalid field index: " + index);
+            }
+
+            if(index < MAX_LOW_INDEX) {
+                lowIndexes |= 1L << index;
+            }else {
+                highIndexes[highIndexesLength++] = index;
+            }
+        }
+
+        highIndexes = Arrays.copyOf(highIndexes, highIndexesLength);
+        Arrays.sort(highIndexes);
+        return new ProtobufProjection(lowIndexes, highIndexes);
+    }
+
+    public boolean contains(int index) {
+        if(index < MAX_LOW_INDEX) {
+            return index >= 0 && (lowIndexes & (1L << index)) != 0;
+        }
+
+        return highIndexes.length != 0 && Arrays.binarySearch(highIndexes, index) >= 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ProtobufProjection that
+                && lowIndexes == that.lowIndexes
+                && Arrays.equals(highIndexes, that.highIndexes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(lowIndexes) + Arrays.hashCode(highIndexes);
+    }
+}
@@ -33,6 +33,8 @@
 // Implement all String methods in a sealed classes that specializes already deserialized string and string that can be deserialized if needed
 // Don't provide default mixin as ProtobufString offers all the String features
 // Hash might not be the same for a wrap
+// Properties typed as CharSequence are assigned the ProtobufString directly, so they keep the lazy decoding without depending on this type
+// The supportable warning for String properties is opt-in: compile with -Aprotobuf.warnEagerStrings=true to see it
 
 package it.auties.protobuf.model;
 
@@ -40,6 +42,7 @@ import it.auties.protobuf.stream.ProtobufOutputStream;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
@@ -85,6 +88,9 @@ public sealed abstract class ProtobufString implements CharSequence {
 
     public abstract String toString();
 
+    // Decodes the value through the cache, used by ProtobufStringCache.get
+    abstract String toString(ProtobufStringCache cache);
+
     public abstract int hashCode();
 
     public abstract int encodedLength();
@@ -240,11 +246,143 @@ public sealed abstract class ProtobufString implements CharSequence {
         return true;
     }
 
+    // The hash of a ProtobufString is the one of Arrays.hashCode applied to its UTF-8 bytes
+    // When the range covers the whole array Arrays.hashCode is used directly, as the JDK vectorizes it
+    // Otherwise four bytes are hashed per iteration, so the multiplications don't depend on each other like in the naive loop
+    static int hashCode(byte[] bytes, int offset, int length) {
+        if(offset == 0 && length == bytes.length) {
+            return Arrays.hashCode(bytes);
+        }
+
+        var result = 1;
+        var index = offset;
+        var end = offset + length;
+        for(; index + 3 < end; index += 4) {
+            result = 923521 * result
+                    + 29791 * bytes[index]
+                    + 961 * bytes[index + 1]
+                    + 31 * bytes[index + 2]
+                    + bytes[index + 3];
+        }
+        for(; index < end; index++) {
+            result = 31 * result + bytes[index];
+        }
+        return result;
+    }
+
+    // Uses absolute reads, so the position of the buffer doesn't change
+    // Lazy buffers are read only, so their array is never accessible, but heap buffers can still be hashed like arrays
+    static int hashCode(ByteBuffer buffer) {
+        if(buffer.hasArray()) {
+            return hashCode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+
+        var result = 1;
+        var index = buffer.position();
+        var end = buffer.limit();
+        for(; index + 3 < end; index += 4) {
+            result = 923521 * result
+                    + 29791 * buffer.get(index)
+                    + 961 * buffer.get(index + 1)
+                    + 31 * buffer.get(index + 2)
+                    + buffer.get(index + 3);
+        }
+        for(; index < end; index++) {
+            result = 31 * result + buffer.get(index);
+        }
+        return result;
+    }
+
+    // Hashes the UTF-8 encoding of value without encoding it in a temporary array
+    // Unpaired surrogates are hashed as '?', which is how String.getBytes encodes them
+    static int hashCode(String value) {
+        var result = 1;
+        var chars = value.length();
+        for(var i = 0; i < chars; i++) {
+            var ch = value.charAt(i);
+            if(ch < 0x80) {
+                result = 31 * result + ch;
+            }else if(ch < 0x800) {
+                result = 31 * result + (byte) (0xC0 | (ch >>> 6));
+                result = 31 * result + (byte) (0x80 | (ch & 0x3F));
+            }else if(!Character.isSurrogate(ch)) {
+                result = 31 * result + (byte) (0xE0 | (ch >>> 12));
+                result = 31 * result + (byte) (0x80 | ((ch >>> 6) & 0x3F));
+                result = 31 * result + (byte) (0x80 | (ch & 0x3F));
+            }else if(isSurrogatePair(value, i, chars)) {
+                var codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                result = 31 * result + (byte) (0xF0 | (codePoint >>> 18));
+                result = 31 * result + (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+                result = 31 * result + (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+                result = 31 * result + (byte) (0x80 | (codePoint & 0x3F));
+            }else {
+                result = 31 * result + '?';
+            }
+        }
+        return result;
+    }
+
+    // Compares the remaining UTF-8 bytes of buffer with the encoding of value, char by char, using absolute reads
+    // Neither side is decoded or encoded in a temporary array, and ASCII chars are compared directly with their byte
+    static boolean equals(ByteBuffer buffer, Value value) {
+        var known = value.encodedLength;
+        if(known != Value.UNKNOWN_LENGTH && known != buffer.remaining()) {
+            return false;
+        }
+
+        var string = value.value;
+        var index = buffer.position();
+        var end = buffer.limit();
+        var chars = string.length();
+        for(var i = 0; i < chars; i++) {
+            var ch = string.charAt(i);
+            if(ch < 0x80) {
+                if(index == end || buffer.get(index++) != ch) {
+                    return false;
+                }
+            }else if(ch < 0x800) {
+                if(end - index < 2
+                        || buffer.get(index++) != (byte) (0xC0 | (ch >>> 6))
+                        || buffer.get(index++) != (byte) (0x80 | (ch & 0x3F))) {
+                    return false;
+                }
+            }else if(!Character.isSurrogate(ch)) {
+                if(end - index < 3
+                        || buffer.get(index++) != (byte) (0xE0 | (ch >>> 12))
+                        || buffer.get(index++) != (byte) (0x80 | ((ch >>> 6) & 0x3F))
+                        || buffer.get(index++) != (byte) (0x80 | (ch & 0x3F))) {
+                    return false;
+                }
+            }else if(isSurrogatePair(string, i, chars)) {
+                var codePoint = Character.toCodePoint(ch, string.charAt(++i));
+                if(end - index < 4
+                        || buffer.get(index++) != (byte) (0xF0 | (codePoint >>> 18))
+                        || buffer.get(index++) != (byte) (0x80 | ((codePoint >>> 12) & 0x3F))
+                        || buffer.get(index++) != (byte) (0x80 | ((codePoint >>> 6) & 0x3F))
+                        || buffer.get(index++) != (byte) (0x80 | (codePoint & 0x3F))) {
+                    return false;
+                }
+            }else if(index == end || buffer.get(index++) != '?') {
+                return false;
+            }
+        }
+
+        return index == end;
+    }
+
+    private static boolean isSurrogatePair(String value, int index, int length) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < length
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
     private static final class Bytes extends ProtobufString {
         private final byte[] bytes;
         private final int offset;
         private final int length;
         private String decoded;
+        // Racy single check: zero means that the hash wasn't computed yet, or that it's actually zero and will be computed again
+        private int hash;
         private Bytes(byte[] bytes, int offset, int length) {
             this.bytes = bytes;
             this.offset = offset;
@@ -256,33 +394,44 @@ public sealed abstract class ProtobufString implements CharSequence {
             return switch (anObject) {
                 case Buffer lazyString -> equals(lazyString.buffer, bytes, offset, length);
                 case Bytes lazyString -> Arrays.mismatch(bytes, offset, offset + length, lazyString.bytes, lazyString.offset, lazyString.offset + lazyString.length) == -1;
-                case Value wrappedString -> Objects.equals(toString(), wrappedString.value);
+                // The bytes are always compared, even if the value was already decoded, so the result agrees with hashCode for malformed input
+                case Value wrappedString -> equals(ByteBuffer.wrap(bytes, offset, length), wrappedString);
                 case null, default -> false;
             };
         }
 
+        // Racy single check: decoding is idempotent and a String is immutable, so it can be published without synchronization
+        // At worst, threads that race on the first call decode the bytes more than once
         @Override
         public String toString() {
-            if(decoded != null) {
-                return decoded;
+            var result = decoded;
+            if(result == null) {
+                result = new String(bytes, offset, length, StandardCharsets.UTF_8);
+                decoded = result;
             }
 
-            synchronized (this) {
-                if(decoded != null) {
-                    return decoded;
-                }
+            return result;
+        }
 
-                return this.decoded = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        @Override
+        String toString(ProtobufStringCache cache) {
+            var result = decoded;
+            if(result == null) {
+                result = cache.get(bytes, offset, length, hashCode());
+                decoded = result;
             }
+
+            return result;
         }
 
         @Override
         public int hashCode() {
-            var end = offset + length;
-            var result = 1;
-            for (var i = offset; i < end; i++) {
-                result = 31 * result + bytes[i];
+            var result = hash;
+            if(result == 0) {
+                result = hashCode(bytes, offset, length);
+                hash = result;
             }
+
             return result;
         }
 
@@ -628,6 +777,7 @@ public sealed abstract class ProtobufString implements CharSequence {
     private static final class Buffer extends ProtobufString {
         private final ByteBuffer buffer;
         private String decoded;
+        private int hash;
         private Buffer(ByteBuffer buffer) {
             if(!buffer.isReadOnly()) {
                 throw new IllegalArgumentException("Only read only buffers are allowed");
@@ -641,33 +791,46 @@ public sealed abstract class ProtobufString implements CharSequence {
             return switch (anObject) {
                 case Bytes lazyString -> equals(buffer, lazyString.bytes, lazyString.offset, lazyString.length);
                 case Buffer lazyString -> buffer.mismatch(lazyString.buffer) == -1;
-                case Value wrappedString -> Objects.equals(toString(), wrappedString.value);
+                // Same as Bytes.equals
+                case Value wrappedString -> equals(buffer, wrappedString);
                 case null, default -> false;
             };
         }
 
+        // Same as Bytes.toString
+        // The bytes are copied with an absolute read: decoding the buffer with a CharsetDecoder would move its position
         @Override
         public String toString() {
-            if(decoded != null) {
-                return decoded;
+            var result = decoded;
+            if(result == null) {
+                var bytes = new byte[buffer.remaining()];
+                buffer.get(buffer.position(), bytes);
+                result = new String(bytes, StandardCharsets.UTF_8);
+                decoded = result;
             }
 
-            synchronized (this) {
-                if(decoded != null) {
-                    return decoded;
-                }
+            return result;
+        }
 
-                return this.decoded = StandardCharsets.UTF_8.decode(buffer).toString();
+        @Override
+        String toString(ProtobufStringCache cache) {
+            var result = decoded;
+            if(result == null) {
+                result = cache.get(buffer, hashCode());
+                decoded = result;
             }
+
+            return result;
         }
 
         @Override
         public int hashCode() {
-            var start = buffer.position();
-            var result = 1;
-            for (var i = 0; i < buffer.remaining(); i++) {
-                result = 31 * result + buffer.get(start + i);
+            var result = hash;
+            if(result == 0) {
+                result = hashCode(buffer);
+                hash = result;
             }
+
             return result;
         }
 
@@ -1013,17 +1176,33 @@ public sealed abstract class ProtobufString implements CharSequence {
     }
 
     private static final class Value extends ProtobufString {
+        private static final int UNKNOWN_LENGTH = -1;
+        private static final VarHandle BYTES;
+
+        static {
+            try {
+                BYTES = MethodHandles.lookup().findVarHandle(Value.class, "bytes", WeakReference.class);
+            } catch (ReflectiveOperationException exception) {
+                throw new ExceptionInInitializerError(exception);
+            }
+        }
+
         private final String value;
         private WeakReference<byte[]> bytes;
+        // Computed by the size pass and reused when the string is written
+        // An int is always read and written atomically, so a racy single check is enough: at worst the length is computed more than once
+        private int encodedLength;
+        private int hash;
         private Value(String value) {
             this.value = value;
+            this.encodedLength = UNKNOWN_LENGTH;
         }
 
         @Override
         public boolean equals(Object anObject) {
             return switch (anObject) {
-                case Buffer lazyString -> Objects.equals(value, lazyString.toString());
-                case Bytes lazyString -> Objects.equals(value, lazyString.toString());
+                case Buffer lazyString -> lazyString.equals(this);
+                case Bytes lazyString -> lazyString.equals(this);
                 case Value wrappedString -> Objects.equals(value, wrappedString.value);
                 case null, default -> false;
             };
@@ -1031,7 +1210,12 @@ public sealed abstract class ProtobufString implements CharSequence {
 
         @Override
         public void write(int field, ProtobufOutputStream outputStream) {
-            outputStream.writeBytes(field, getBytes());
+            var length = encodedLength;
+            if(length == UNKNOWN_LENGTH) {
+                outputStream.writeString(field, value);
+            }else {
+                outputStream.writeString(field, value, length);
+            }
         }
 
         @Override
@@ -1039,28 +1223,31 @@ public sealed abstract class ProtobufString implements CharSequence {
             return value;
         }
 
+        @Override
+        String toString(ProtobufStringCache cache) {
+            return value;
+        }
+
         @Override
         public int hashCode() {
-            return Arrays.hashCode(getBytes());
+            var result = hash;
+            if(result == 0) {
+                result = hashCode(value);
+                hash = result;
+            }
+
+            return result;
         }
 
         @Override
         public int encodedLength() {
-            var count = 0;
-            for (int i = 0, len = value.length(); i < len; i++) {
-                var ch = value.charAt(i);
-                if (ch <= 0x7F) {
-                    count++;
-                } else if (ch <= 0x7FF) {
-                    count += 2;
-                } else if (Character.isHighSurrogate(ch)) {
-                    count += 4;
-                    ++i;
-                } else {
-                    count += 3;
-                }
+            var length = encodedLength;
+            if(length == UNKNOWN_LENGTH) {
+                length = ProtobufOutputStream.getUtf8Size(value);
+                encodedLength = length;
             }
-            return count;
+
+            return length;
         }
 
         @Override
@@ -1233,27 +1420,18 @@ public sealed abstract class ProtobufString implements CharSequence {
             return value.toCharArray();
         }
 
+        // Unlike a String, the contents of an array aren't safely published by a plain write, so the reference is published with release semantics
+        // Threads that race on the first call may encode the value more than once, but they never block
         @Override
         public byte[] getBytes() {
-            if(bytes != null) {
-                var result = bytes.get();
-                if(result != null) {
-                    return result;
-                }
-            }
-
-            synchronized (this) {
-                if(bytes != null) {
-                    var result = bytes.get();
-                    if(result != null) {
-                        return result;
-                    }
-                }
-
-                var result = value.getBytes(StandardCharsets.UTF_8);
-                this.bytes = new WeakReference<>(result);
+            var cached = (WeakReference<?>) BYTES.getAcquire(this);
+            if(cached != null && cached.get() instanceof byte[] result) {
                 return result;
             }
+
+            var result = value.getBytes(StandardCharsets.UTF_8);
+            BYTES.setRelease(this, new WeakReference<>(result));
+            return result;
         }
 
         @Override
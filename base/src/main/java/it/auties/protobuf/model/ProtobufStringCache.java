@@ -0,0 +1,105 @@
+package it.auties.protobuf.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Bounded cache that maps the UTF-8 bytes of a decoded string to a shared String instance
+// Useful when the same small set of values, like country codes or event types, is decoded over and over:
+// a hit doesn't decode the bytes and doesn't allocate a new String
+// The table is direct mapped: each key can only live in the slot selected by its hash, and a new key evicts the one that was there
+// Entries are immutable, so they can be published with a plain write: readers either see the old entry, the new one or nothing,
+// which is always safe, so the cache can be shared between threads without locks
+// Strings longer than maxLength are never cached, as they are unlikely to repeat and would keep large arrays alive
+public final class ProtobufStringCache {
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int DEFAULT_MAX_LENGTH = 64;
+    private static final int MAX_CAPACITY = 1 << 30; // The largest power of two that fits in an int
+    private static final ProtobufStringCache SHARED = new ProtobufStringCache(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+
+    private final Entry[] entries;
+    private final int maxLength;
+    public ProtobufStringCache(int capacity, int maxLength) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        if(capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must not be bigger than " + MAX_CAPACITY);
+        }
+
+        if(maxLength < 0) {
+            throw new IllegalArgumentException("Max length must not be negative");
+        }
+
+        // Round up to a power of two, so the slot can be selected with a mask
+        this.entries = new Entry[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+        this.maxLength = maxLength;
+    }
+
+    // The cache used by ProtobufStringCacheMixin
+    public static ProtobufStringCache shared() {
+        return SHARED;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    public int maxLength() {
+        return maxLength;
+    }
+
+    // Returns the decoded value of a string, reusing the String instance of a previous call with the same bytes if it's still cached
+    public String get(ProtobufString value) {
+        return value == null ? null : value.toString(this);
+    }
+
+    String get(byte[] bytes, int offset, int length, int hash) {
+        if(length > maxLength) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+
+        var index = slot(hash);
+        var entry = entries[index];
+        if(entry != null && entry.hash() == hash && Arrays.equals(entry.key(), 0, entry.key().length, bytes, offset, offset + length)) {
+            return entry.value();
+        }
+
+        var key = Arrays.copyOfRange(bytes, offset, offset + length);
+        var result = new String(key, StandardCharsets.UTF_8);
+        entries[index] = new Entry(key, hash, result);
+        return result;
+    }
+
+    // Uses absolute reads, so the position of the buffer doesn't change
+    String get(ByteBuffer buffer, int hash) {
+        var length = buffer.remaining();
+        if(length > maxLength) {
+            var bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        var index = slot(hash);
+        var entry = entries[index];
+        if(entry != null && entry.hash() == hash && ProtobufString.equals(buffer, entry.key(), 0, entry.key().length)) {
+            return entry.value();
+        }
+
+        var key = new byte[length];
+        buffer.get(buffer.position(), key);
+        var result = new String(key, StandardCharsets.UTF_8);
+        entries[index] = new Entry(key, hash, result);
+        return result;
+    }
+
+    // The hash of a ProtobufString is a polynomial whose low bits are weak for short keys, so the high bits are mixed in
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (entries.length - 1);
+    }
+
+    private record Entry(byte[] key, int hash, String value) {
+
+    }
+}
@@ -0,0 +1,105 @@
+package it.auties.protobuf.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A model that represents the unknown fields of a message as the bytes they were read from
+ * Use it as the type of a property annotated with @ProtobufUnknownFields: the deserializer records the encoded value of each unknown field,
+ * without decoding it, and the serializer writes it back as it is, so unknown fields survive a round trip without being parsed
+ * If the input is a byte[], a ByteBuffer or a file, the values are views of the input, so no bytes are copied
+ * The tags are not kept, as they are rewritten from the index and wire type of each field
+ */
+@SuppressWarnings("unused")
+public final class ProtobufUnknownFieldSet {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] tags;
+    private ByteBuffer[] values;
+    private int size;
+    public ProtobufUnknownFieldSet() {
+        this.tags = new int[DEFAULT_CAPACITY];
+        this.values = new ByteBuffer[DEFAULT_CAPACITY];
+    }
+
+    // Fields are kept in the order they were read, fields with the same index included
+    public void add(int index, int wireType, ByteBuffer value) {
+        if(size == tags.length) {
+            this.tags = Arrays.copyOf(tags, size << 1);
+            this.values = Arrays.copyOf(values, size << 1);
+        }
+
+        tags[size] = ProtobufWireType.makeTag(index, wireType);
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int index(int position) {
+        return tags[checkPosition(position)] >>> 3;
+    }
+
+    public int wireType(int position) {
+        return tags[checkPosition(position)] & 7;
+    }
+
+    // The encoded value, without its tag: length delimited values start with their length and groups end with their end tag
+    // The returned buffer is a view of the input, so its position must not be changed
+    public ByteBuffer value(int position) {
+        return values[checkPosition(position)];
+    }
+
+    private int checkPosition(int position) {
+        return Objects.checkIndex(position, size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!(obj instanceof ProtobufUnknownFieldSet that) || size != that.size) {
+            return false;
+        }
+
+        for(var i = 0; i < size; i++) {
+            if(tags[i] != that.tags[i] || !values[i].equals(that.values[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        var result = 1;
+        for(var i = 0; i < size; i++) {
+            result = 31 * result + tags[i];
+            result = 31 * result + values[i].hashCode();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder("ProtobufUnknownFieldSet[");
+        for(var i = 0; i < size; i++) {
+            if(i != 0) {
+                result.append(", ");
+            }
+
+            result.append(index(i))
+                    .append("=")
+                    .append(values[i].remaining())
+                    .append(" bytes");
+        }
+
+        return result.append("]").toString();
+    }
+}
@@ -0,0 +1,126 @@
+package it.auties.protobuf.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// A reusable output stream backed by a heap or direct buffer that grows when it's full
+// Many messages can be serialized in the same stream, each one can then be obtained as a slice of the underlying buffer:
+//     var start = stream.size();
+//     MessageSpec.encode(message, stream);
+//     var slice = stream.slice(start, stream.size() - start);
+// Calling reset allows the buffer to be reused, so steady-state serialization doesn't allocate anything
+// Slices share the memory of the stream, so they are only valid until the next reset
+public final class ProtobufGrowableOutputStream extends ProtobufOutputStream<ByteBuffer> {
+    private static final int THREAD_LOCAL_CAPACITY = 1024;
+    private static final ThreadLocal<ProtobufGrowableOutputStream> THREAD_LOCAL = ThreadLocal.withInitial(() -> new ProtobufGrowableOutputStream(THREAD_LOCAL_CAPACITY, false));
+
+    private final boolean direct;
+    private ByteBuffer buffer;
+    ProtobufGrowableOutputStream(int initialCapacity, boolean direct) {
+        this.direct = direct;
+        this.buffer = allocate(Math.max(initialCapacity, 16));
+    }
+
+    static ProtobufGrowableOutputStream threadLocal() {
+        var stream = THREAD_LOCAL.get();
+        stream.reset();
+        return stream;
+    }
+
+    // The number of bytes written since the last reset
+    public int size() {
+        return buffer.position();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public void reset() {
+        buffer.clear();
+    }
+
+    // Returns a view of the bytes in [offset, offset + length)
+    public ByteBuffer slice(int offset, int length) {
+        return buffer.slice(offset, length);
+    }
+
+    public byte[] toByteArray() {
+        var result = new byte[buffer.position()];
+        buffer.get(0, result);
+        return result;
+    }
+
+    @Override
+    protected void write(byte entry) {
+        ensureCapacity(1);
+        buffer.put(entry);
+    }
+
+    @Override
+    protected void write(byte[] entry) {
+        write(entry, 0, entry.length);
+    }
+
+    @Override
+    protected void write(byte[] entry, int offset, int length) {
+        ensureCapacity(length);
+        buffer.put(entry, offset, length);
+    }
+
+    @Override
+    protected void writeFixed32NoTag(int value) {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    @Override
+    protected void writeFixed64NoTag(long value) {
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    @Override
+    protected void writeUtf8NoTag(String value, int length) {
+        ensureCapacity(length);
+        ProtobufUtf8.encode(value, length, buffer);
+    }
+
+    // Use an absolute read, so the position of the entry doesn't change
+    @Override
+    protected void write(ByteBuffer entry) {
+        var length = entry.remaining();
+        ensureCapacity(length);
+        var position = buffer.position();
+        buffer.put(position, entry, entry.position(), length);
+        buffer.position(position + length);
+    }
+
+    private void ensureCapacity(int length) {
+        if(buffer.remaining() >= length) {
+            return;
+        }
+
+        var size = buffer.position();
+        var newBuffer = allocate(Math.max(buffer.capacity() << 1, size + length));
+        newBuffer.put(0, buffer, 0, size);
+        newBuffer.position(size);
+        this.buffer = newBuffer;
+    }
+
+    // Fixed values are written as little endian words
+    private ByteBuffer allocate(int capacity) {
+        var result = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        return result.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Returns a view of all the bytes written since the last reset
+    @Override
+    public ByteBuffer toOutput() {
+        return buffer.slice(0, buffer.position());
+    }
+}
@@ -10,22 +10,31 @@
 
 package it.auties.protobuf.stream;
 
+import it.auties.protobuf.builtin.ProtobufMapMixin;
 import it.auties.protobuf.exception.ProtobufDeserializationException;
 import it.auties.protobuf.model.ProtobufString;
 import it.auties.protobuf.model.ProtobufWireType;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.InvalidMarkException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-public abstract class ProtobufInputStream {
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+public abstract class ProtobufInputStream implements AutoCloseable {
     private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private static final int MAX_VAR_INT_SIZE = 10;
 
     private int wireType;
     private int index;
@@ -46,8 +55,29 @@ public abstract class ProtobufInputStream {
         return new Buffer(buffer, buffer.remaining());
     }
 
+    // The file is mapped in memory, so its content is never copied on the heap: strings and bytes are views of the mapping
+    // Files bigger than 2GB are mapped one region at a time
+    // The file stays open until the stream is closed, so that it doesn't need to be opened again for each region
+    public static ProtobufInputStream fromFile(Path path) {
+        try {
+            var channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                return new Mapped(new MappedSource(channel, channel.size()), -1);
+            }catch (Throwable throwable) {
+                channel.close();
+                throw throwable;
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
     public static ProtobufInputStream fromStream(InputStream buffer) {
-        return new Stream(buffer);
+        return new Stream(new StreamSource(buffer, StreamSource.DEFAULT_CHUNK_SIZE), -1);
+    }
+
+    public static ProtobufInputStream fromStream(InputStream buffer, int chunkSize) {
+        return new Stream(new StreamSource(buffer, chunkSize), -1);
     }
 
     public boolean readTag() {
@@ -55,7 +85,10 @@ public abstract class ProtobufInputStream {
             return false;
         }
 
-        var rawTag = readInt32Unchecked();
+        return setTag(readInt32Unchecked());
+    }
+
+    private boolean setTag(int rawTag) {
         this.wireType = rawTag & 7;
         this.index = rawTag >>> 3;
         if(index == 0) {
@@ -101,10 +134,12 @@ public abstract class ProtobufInputStream {
     public List<Integer> readInt32Packed() {
         return switch (wireType) {
             case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
-                var results = new ArrayList<Integer>();
-                var input = readLengthDelimited();
-                while (!input.isFinished()){
-                    results.add(input.readInt32Unchecked());
+                var size = readPackedLength();
+                var values = new int[size];
+                var count = readVarInt32Packed(size, values);
+                var results = new ArrayList<Integer>(count);
+                for(var i = 0; i < count; i++) {
+                    results.add(values[i]);
                 }
 
                 yield results;
@@ -118,10 +153,12 @@ public abstract class ProtobufInputStream {
     public List<Long> readInt64Packed() {
         return switch (wireType) {
             case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
-                var results = new ArrayList<Long>();
-                var input = readLengthDelimited();
-                while (!input.isFinished()){
-                    results.add(input.readInt64Unchecked());
+                var size = readPackedLength();
+                var values = new long[size];
+                var count = readVarInt64Packed(size, values);
+                var results = new ArrayList<Long>(count);
+                for(var i = 0; i < count; i++) {
+                    results.add(values[i]);
                 }
 
                 yield results;
@@ -132,6 +169,44 @@ public abstract class ProtobufInputStream {
         };
     }
 
+    public List<Integer> readSInt32Packed() {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var values = new int[size];
+                var count = readVarInt32Packed(size, values);
+                var results = new ArrayList<Integer>(count);
+                for(var i = 0; i < count; i++) {
+                    results.add(decodeZigZag32(values[i]));
+                }
+
+                yield results;
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> List.of(decodeZigZag32(readInt32Unchecked()));
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public List<Long> readSInt64Packed() {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var values = new long[size];
+                var count = readVarInt64Packed(size, values);
+                var results = new ArrayList<Long>(count);
+                for(var i = 0; i < count; i++) {
+                    results.add(decodeZigZag64(values[i]));
+                }
+
+                yield results;
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> List.of(decodeZigZag64(readInt64Unchecked()));
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
     public List<Integer> readFixed32Packed() {
         return switch (wireType) {
             case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
@@ -183,12 +258,268 @@ public abstract class ProtobufInputStream {
         };
     }
 
+    // The methods below decode packed fields into primitive arrays, appending the decoded values to the ones read so far
+    // Usually a packed field is encoded once, so values is empty and no copy is needed
+    public float[] readFloatPacked(float[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var count = readFixedPackedCount(Float.BYTES);
+                var input = subStream(count * Float.BYTES);
+                var results = new float[count];
+                for(var i = 0; i < results.length; i++) {
+                    results[i] = input.readFloatUnchecked();
+                }
+
+                yield append(values, results, results.length);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_FIXED32 -> append(values, new float[]{readFloatUnchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public double[] readDoublePacked(double[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var count = readFixedPackedCount(Double.BYTES);
+                var input = subStream(count * Double.BYTES);
+                var results = new double[count];
+                for(var i = 0; i < results.length; i++) {
+                    results[i] = input.readDoubleUnchecked();
+                }
+
+                yield append(values, results, results.length);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_FIXED64 -> append(values, new double[]{readDoubleUnchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public int[] readFixed32Packed(int[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var count = readFixedPackedCount(Integer.BYTES);
+                var input = subStream(count * Integer.BYTES);
+                var results = new int[count];
+                for(var i = 0; i < results.length; i++) {
+                    results[i] = input.readFixed32Unchecked();
+                }
+
+                yield append(values, results, results.length);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_FIXED32 -> append(values, new int[]{readFixed32Unchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public long[] readFixed64Packed(long[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var count = readFixedPackedCount(Long.BYTES);
+                var input = subStream(count * Long.BYTES);
+                var results = new long[count];
+                for(var i = 0; i < results.length; i++) {
+                    results[i] = input.readFixed64Unchecked();
+                }
+
+                yield append(values, results, results.length);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_FIXED64 -> append(values, new long[]{readFixed64Unchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    // A var int takes at least a byte, so the length of the field is an upper bound for the number of values
+    public int[] readInt32Packed(int[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var results = new int[size];
+                var count = readVarInt32Packed(size, results);
+                yield append(values, results, count);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> append(values, new int[]{readInt32Unchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public long[] readInt64Packed(long[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var results = new long[size];
+                var count = readVarInt64Packed(size, results);
+                yield append(values, results, count);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> append(values, new long[]{readInt64Unchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public int[] readSInt32Packed(int[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var results = new int[size];
+                var count = readVarInt32Packed(size, results);
+                for(var i = 0; i < count; i++) {
+                    results[i] = decodeZigZag32(results[i]);
+                }
+
+                yield append(values, results, count);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> append(values, new int[]{decodeZigZag32(readInt32Unchecked())}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public long[] readSInt64Packed(long[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var results = new long[size];
+                var count = readVarInt64Packed(size, results);
+                for(var i = 0; i < count; i++) {
+                    results[i] = decodeZigZag64(results[i]);
+                }
+
+                yield append(values, results, count);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> append(values, new long[]{decodeZigZag64(readInt64Unchecked())}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    public boolean[] readBoolPacked(boolean[] values) {
+        return switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = readPackedLength();
+                var input = subStream(size);
+                var results = new boolean[size];
+                var count = 0;
+                while (!input.isFinished()){
+                    results[count++] = input.readBoolUnchecked();
+                }
+
+                yield append(values, results, count);
+            }
+
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> append(values, new boolean[]{readBoolUnchecked()}, 1);
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        };
+    }
+
+    // Decodes the var ints of a packed field that is size bytes long in results, and returns how many were read
+    // The inputs that can access the bytes of the field as an array decode them in bulk, see ProtobufVarInts
+    protected int readVarInt32Packed(int size, int[] results) {
+        var input = subStream(size);
+        var count = 0;
+        while (!input.isFinished()){
+            results[count++] = input.readInt32Unchecked();
+        }
+
+        return count;
+    }
+
+    protected int readVarInt64Packed(int size, long[] results) {
+        var input = subStream(size);
+        var count = 0;
+        while (!input.isFinished()){
+            results[count++] = input.readInt64Unchecked();
+        }
+
+        return count;
+    }
+
+    // The arrays used to decode a packed field are sized from its length, so the length is checked before anything is allocated:
+    // a corrupted or malicious length could otherwise ask for gigabytes that are not in the input
+    private int readPackedLength() {
+        var size = readInt32Unchecked();
+        if(size < 0) {
+            throw ProtobufDeserializationException.negativeLength(size);
+        }
+
+        if(!hasRemaining(size)) {
+            throw ProtobufDeserializationException.truncatedMessage();
+        }
+
+        return size;
+    }
+
+    // Returns the number of fixed values in a packed field, whose length must be a multiple of their size
+    // Both checks happen before the caller allocates the array for the values
+    private int readFixedPackedCount(int valueSize) {
+        var size = readPackedLength();
+        if(size % valueSize != 0) {
+            throw ProtobufDeserializationException.truncatedMessage();
+        }
+
+        return size / valueSize;
+    }
+
+    private static int[] append(int[] values, int[] results, int count) {
+        if(values == null || values.length == 0) {
+            return count == results.length ? results : Arrays.copyOf(results, count);
+        }
+
+        var merged = Arrays.copyOf(values, values.length + count);
+        System.arraycopy(results, 0, merged, values.length, count);
+        return merged;
+    }
+
+    private static long[] append(long[] values, long[] results, int count) {
+        if(values == null || values.length == 0) {
+            return count == results.length ? results : Arrays.copyOf(results, count);
+        }
+
+        var merged = Arrays.copyOf(values, values.length + count);
+        System.arraycopy(results, 0, merged, values.length, count);
+        return merged;
+    }
+
+    private static float[] append(float[] values, float[] results, int count) {
+        if(values == null || values.length == 0) {
+            return count == results.length ? results : Arrays.copyOf(results, count);
+        }
+
+        var merged = Arrays.copyOf(values, values.length + count);
+        System.arraycopy(results, 0, merged, values.length, count);
+        return merged;
+    }
+
+    private static double[] append(double[] values, double[] results, int count) {
+        if(values == null || values.length == 0) {
+            return count == results.length ? results : Arrays.copyOf(results, count);
+        }
+
+        var merged = Arrays.copyOf(values, values.length + count);
+        System.arraycopy(results, 0, merged, values.length, count);
+        return merged;
+    }
+
+    private static boolean[] append(boolean[] values, boolean[] results, int count) {
+        if(values == null || values.length == 0) {
+            return count == results.length ? results : Arrays.copyOf(results, count);
+        }
+
+        var merged = Arrays.copyOf(values, values.length + count);
+        System.arraycopy(results, 0, merged, values.length, count);
+        return merged;
+    }
+
     public float readFloat() {
         return Float.intBitsToFloat(readFixed32());
     }
 
     public float readFloatUnchecked() {
-        return Float.intBitsToFloat(readFixed32());
+        return Float.intBitsToFloat(readFixed32Unchecked());
     }
 
     public double readDouble() {
@@ -208,7 +539,7 @@ public abstract class ProtobufInputStream {
     }
 
     private boolean readBoolUnchecked() {
-        return readInt64() == 1;
+        return readInt64Unchecked() != 0;
     }
 
     public ProtobufString readString() {
@@ -235,7 +566,7 @@ public abstract class ProtobufInputStream {
     // Source: https://github.com/protocolbuffers/protobuf/blob/main/java/core/src/main/java/com/google/protobuf/CodedInputStream.java
     // Fastest implementation I could find
     // Adapted to work with Channels
-    private int readInt32Unchecked() {
+    protected int readInt32Unchecked() {
         mark();
         fspath:
         {
@@ -279,7 +610,7 @@ public abstract class ProtobufInputStream {
         return readInt64Unchecked();
     }
 
-    private long readInt64Unchecked() {
+    protected long readInt64Unchecked() {
         mark();
         fspath:
         {
@@ -332,7 +663,7 @@ public abstract class ProtobufInputStream {
         return readVarInt64Slow();
     }
 
-    private long readVarInt64Slow() {
+    protected long readVarInt64Slow() {
         var result = 0L;
         for (int shift = 0; shift < 64; shift += 7) {
             byte b = readByte();
@@ -345,6 +676,23 @@ public abstract class ProtobufInputStream {
         throw ProtobufDeserializationException.malformedVarInt();
     }
 
+    public int readSInt32() {
+        return decodeZigZag32(readInt32());
+    }
+
+    public long readSInt64() {
+        return decodeZigZag64(readInt64());
+    }
+
+    // The inverse of ProtobufOutputStream.encodeZigZag32 and encodeZigZag64
+    private static int decodeZigZag32(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long decodeZigZag64(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
     public int readFixed32() {
         if(wireType != ProtobufWireType.WIRE_TYPE_FIXED32) {
             throw ProtobufDeserializationException.invalidWireType(wireType);
@@ -353,7 +701,7 @@ public abstract class ProtobufInputStream {
         return readFixed32Unchecked();
     }
 
-    private int readFixed32Unchecked() {
+    protected int readFixed32Unchecked() {
         return readByte() & 255
                 | (readByte() & 255) << 8
                 | (readByte() & 255) << 16
@@ -368,7 +716,7 @@ public abstract class ProtobufInputStream {
         return readFixed64Unchecked();
     }
 
-    private long readFixed64Unchecked() {
+    protected long readFixed64Unchecked() {
         return (long) readByte() & 255L
                 | ((long) readByte() & 255L) << 8
                 | ((long) readByte() & 255L) << 16
@@ -411,13 +759,57 @@ public abstract class ProtobufInputStream {
         while (readTag()) {
             var value = readUnknown(allocate);
             if(group != null) {
-                group.put(index, value);
+                // Same rule as the unknown fields of a message: repeated indexes are collected in a list
+                ProtobufMapMixin.addUnknownField(group, index, value);
             }
         }
         assertGroupClosed(groupIndex);
         return group;
     }
 
+    // Skips the value of the field whose tag was just read, without allocating anything
+    // Used by the generated code for unknown fields, when they are not collected, and for the fields excluded by a projection
+    public void skipField() {
+        switch (wireType) {
+            case ProtobufWireType.WIRE_TYPE_VAR_INT -> skipVarInt();
+            case ProtobufWireType.WIRE_TYPE_FIXED32 -> skipBytes(Integer.BYTES);
+            case ProtobufWireType.WIRE_TYPE_FIXED64 -> skipBytes(Long.BYTES);
+            case ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED -> {
+                var size = this.readInt32Unchecked();
+                if(size < 0) {
+                    throw ProtobufDeserializationException.negativeLength(size);
+                }
+
+                skipBytes(size);
+            }
+            case ProtobufWireType.WIRE_TYPE_START_OBJECT -> {
+                var groupIndex = index;
+                while (readTag()) {
+                    skipField();
+                }
+                assertGroupClosed(groupIndex);
+            }
+            default -> throw ProtobufDeserializationException.invalidWireType(wireType);
+        }
+    }
+
+    // Returns the encoded value of the field whose tag was just read, without decoding it: used by the generated code to fill a ProtobufUnknownFieldSet
+    // If this stream reads a byte[], a ByteBuffer or a file, the result is a view of the input, otherwise the bytes are copied
+    public ByteBuffer readUnknownRaw() {
+        return readRawField();
+    }
+
+    // A var int is at most 10 bytes long, the last one is the only one without the most significant bit set
+    private void skipVarInt() {
+        for(var i = 0; i < 10; i++) {
+            if(readByte() >= 0) {
+                return;
+            }
+        }
+
+        throw ProtobufDeserializationException.malformedVarInt();
+    }
+
     public void assertGroupOpened(int groupIndex) {
         if((wireType == -1 && !readTag()) || wireType != ProtobufWireType.WIRE_TYPE_START_OBJECT || index != groupIndex) {
             throw ProtobufDeserializationException.invalidStartObject(groupIndex);
@@ -437,6 +829,51 @@ public abstract class ProtobufInputStream {
         return index;
     }
 
+    public int wireType() {
+        return wireType;
+    }
+
+    // Returns a stream that reads the next message written with ProtobufOutputStream.writeDelimited, or null if there are no more messages
+    // The returned stream must be read completely before calling this method again
+    public ProtobufInputStream readDelimited() {
+        if(isFinished()) {
+            return null;
+        }
+
+        var size = readInt32Unchecked();
+        if(size < 0) {
+            throw ProtobufDeserializationException.negativeLength(size);
+        }
+
+        return subStream(size);
+    }
+
+    // Returns an iterator that decodes the delimited messages in this stream one at a time, when they are requested
+    // As messages are not collected, a stream of any length can be read using constant memory
+    public <T> Iterator<T> readDelimitedIterator(Function<ProtobufInputStream, T> decoder) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !isFinished();
+            }
+
+            @Override
+            public T next() {
+                var message = readDelimited();
+                if(message == null) {
+                    throw new NoSuchElementException();
+                }
+
+                return decoder.apply(message);
+            }
+        };
+    }
+
+    public <T> java.util.stream.Stream<T> readDelimitedStream(Function<ProtobufInputStream, T> decoder) {
+        var spliterator = Spliterators.spliteratorUnknownSize(readDelimitedIterator(decoder), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
     public ProtobufInputStream readLengthDelimited() {
         if(wireType != ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED) {
             throw ProtobufDeserializationException.invalidWireType(wireType);
@@ -453,161 +890,632 @@ public abstract class ProtobufInputStream {
     protected abstract byte readByte();
     protected abstract ByteBuffer readBytes(int size);
     protected abstract ProtobufString readString(int size);
+    protected abstract void skipBytes(int size);
+    protected abstract ByteBuffer readRawField();
     protected abstract void mark();
     protected abstract void rewind();
     protected abstract boolean isFinished();
+    protected abstract boolean hasRemaining(int size);
     protected abstract ProtobufInputStream subStream(int size);
 
-    private static final class Stream extends ProtobufInputStream {
-        private static final int MAX_VAR_INT_SIZE = 10;
+    // Only the streams created by fromFile own a resource, the file they map: the others read an input owned by the caller
+    // The strings and bytes that were already read stay valid after the stream is closed
+    @Override
+    public void close() {
+
+    }
+
+    // The state shared by a stream and its sub streams
+    // Bytes are read from the input stream in chunks, so that most reads don't need a call to the input stream
+    private static final class StreamSource {
+        private static final int DEFAULT_CHUNK_SIZE = 8192;
+        private static final int MIN_CHUNK_SIZE = 16;
 
         private final InputStream inputStream;
-        private final long length;
-        private final byte[] buffer;
-        private long position;
-        private int bufferReadPosition;
-        private int bufferWritePosition;
-        private int bufferLength;
-        private Stream(InputStream inputStream) {
+        private byte[] buffer;
+        private long offset; // The position in the input stream of the first byte in the buffer
+        private int position;
+        private int limit;
+        private int marker;
+        private StreamSource(InputStream inputStream, int chunkSize) {
             this.inputStream = inputStream;
-            this.length = -1;
-            this.buffer = new byte[MAX_VAR_INT_SIZE];
+            this.buffer = new byte[Math.max(chunkSize, MIN_CHUNK_SIZE)];
+            this.marker = -1;
         }
 
-        private Stream(InputStream inputStream, long length, byte[] buffer, int bufferReadPosition, int bufferWritePosition, int bufferLength) {
-            this.inputStream = inputStream;
-            this.length = length;
-            this.buffer = buffer;
-            this.bufferReadPosition = bufferReadPosition;
-            this.bufferWritePosition = bufferWritePosition;
-            this.bufferLength = bufferLength;
+        private long absolutePosition() {
+            return offset + position;
         }
 
-        @Override
-        public byte readByte() {
+        private int available() {
+            return limit - position;
+        }
+
+        // Makes sure that at least count bytes are buffered, returns false if the input stream ends before
+        // Reads of fixed size values never ask for more than MIN_CHUNK_SIZE bytes, so they fit in the buffer once it's compacted
+        // skipBytes can ask for any count while a marker is set: fill then grows the buffer, as the bytes after the marker must be kept
+        private boolean require(int count) {
+            while (limit - position < count) {
+                if(!fill()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        // Reads as many bytes as possible, with a single call, after the ones already buffered
+        // Returns false if the input stream has ended
+        private boolean fill() {
             try {
-                if(length != -1) {
-                    position++;
+                compact();
+                if(limit == buffer.length) {
+                    // The whole buffer is needed to rewind to the marker
+                    buffer = Arrays.copyOf(buffer, buffer.length << 1);
                 }
 
-                if(bufferLength > 0) {
-                    bufferLength--;
-                    return buffer[bufferReadPosition++];
+                var read = inputStream.read(buffer, limit, buffer.length - limit);
+                if(read <= 0) {
+                    return false;
                 }
 
-                var result = (byte) inputStream.read();
-                buffer[bufferWritePosition++ % buffer.length] = result;
-                return result;
+                limit += read;
+                return true;
             } catch (IOException exception) {
                 throw new UncheckedIOException(exception);
             }
         }
 
-        @Override
-        public ByteBuffer readBytes(int size) {
-            try {
-                return ByteBuffer.wrap(readStreamBytes(size));
-            } catch (IOException exception) {
-                throw new UncheckedIOException(exception);
+        // Moves the bytes that can still be read, or rewound to, at the start of the buffer
+        private void compact() {
+            var start = marker != -1 ? Math.min(marker, position) : position;
+            if(start == 0) {
+                return;
             }
-        }
 
-        @Override
-        public ProtobufString readString(int size) {
-            try {
-                return ProtobufString.lazy(readStreamBytes(size), 0, size);
-            } catch (IOException exception) {
-                throw new UncheckedIOException(exception);
+            var length = limit - start;
+            System.arraycopy(buffer, start, buffer, 0, length);
+            offset += start;
+            position -= start;
+            limit = length;
+            if(marker != -1) {
+                marker -= start;
             }
         }
 
-        private byte[] readStreamBytes(int size) throws IOException {
-            if(length != -1) {
-                position += size;
+        private void skipBytes(int size) {
+            var buffered = Math.min(size, available());
+            position += buffered;
+            if(buffered == size) {
+                return;
             }
 
-            var result = new byte[size];
-            for (int i = 0; i < size; i++) {
-                if(bufferLength > 0) {
-                    result[i] = buffer[bufferReadPosition++];
-                    bufferLength--;
-                }else {
-                    var entry = (byte) inputStream.read();
-                    result[i] = entry;
-                    buffer[bufferWritePosition++ % buffer.length] = entry;
+            // The bytes after the marker must stay in the buffer, so they can't be skipped by the input stream
+            if(marker != -1) {
+                if(!require(size - buffered)) {
+                    throw ProtobufDeserializationException.truncatedMessage();
                 }
+
+                position += size - buffered;
+                return;
             }
-            return result;
-        }
 
-        @Override
-        public void mark() {
-            this.bufferReadPosition = 0;
-            this.bufferWritePosition = 0;
+            // The bytes that are not buffered are skipped by the input stream, which doesn't need to read them if it supports seeking
+            try {
+                offset += limit;
+                position = 0;
+                limit = 0;
+                marker = -1;
+                var remaining = size - buffered;
+                inputStream.skipNBytes(remaining);
+                offset += remaining;
+            } catch (EOFException exception) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
         }
 
-        @Override
+        private byte[] readBytes(int size) {
+            var result = new byte[size];
+            var buffered = Math.min(size, available());
+            System.arraycopy(buffer, position, result, 0, buffered);
+            position += buffered;
+            if(buffered == size) {
+                return result;
+            }
+
+            // Big payloads skip the buffer and are read in bulk
+            try {
+                offset += limit;
+                position = 0;
+                limit = 0;
+                marker = -1;
+                var read = buffered;
+                while (read < size) {
+                    var chunk = inputStream.read(result, read, size - read);
+                    if(chunk <= 0) {
+                        throw ProtobufDeserializationException.truncatedMessage();
+                    }
+
+                    read += chunk;
+                    offset += chunk;
+                }
+
+                return result;
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    private static final class Stream extends ProtobufInputStream {
+        private final StreamSource source;
+        private final long limit; // The position in the input stream where this stream ends, or -1 if it ends with the input stream
+        private Stream(StreamSource source, long limit) {
+            this.source = source;
+            this.limit = limit;
+        }
+
+        @Override
+        public byte readByte() {
+            var source = this.source;
+            if(source.position == source.limit && !source.fill()) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            return source.buffer[source.position++];
+        }
+
+        // Source: https://github.com/protocolbuffers/protobuf/blob/main/java/core/src/main/java/com/google/protobuf/CodedInputStream.java
+        // Same algorithm as the one in ProtobufInputStream, but working directly on the buffered chunk
+        // If the var int could span past the end of the chunk, the slow path is used
+        @Override
+        protected int readInt32Unchecked() {
+            var source = this.source;
+            var buffer = source.buffer;
+            var position = source.position;
+            fspath:
+            {
+                if(position == source.limit) {
+                    break fspath;
+                }
+
+                int x;
+                if ((x = buffer[position++]) >= 0) {
+                    source.position = position;
+                    return x;
+                } else if (source.limit - position < MAX_VAR_INT_SIZE - 1) {
+                    break fspath;
+                } else if ((x ^= (buffer[position++] << 7)) < 0) {
+                    x ^= (~0 << 7);
+                } else if ((x ^= (buffer[position++] << 14)) >= 0) {
+                    x ^= (~0 << 7) ^ (~0 << 14);
+                } else if ((x ^= (buffer[position++] << 21)) < 0) {
+                    x ^= (~0 << 7) ^ (~0 << 14) ^ (~0 << 21);
+                } else {
+                    int y = buffer[position++];
+                    x ^= y << 28;
+                    x ^= (~0 << 7) ^ (~0 << 14) ^ (~0 << 21) ^ (~0 << 28);
+                    if (y < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0) {
+                        break fspath;
+                    }
+                }
+                source.position = position;
+                return x;
+            }
+
+            return (int) readVarInt64Slow();
+        }
+
+        @Override
+        protected long readInt64Unchecked() {
+            var source = this.source;
+            var buffer = source.buffer;
+            var position = source.position;
+            fspath:
+            {
+                if(position == source.limit) {
+                    break fspath;
+                }
+
+                long x;
+                int y;
+                if ((y = buffer[position++]) >= 0) {
+                    source.position = position;
+                    return y;
+                } else if (source.limit - position < MAX_VAR_INT_SIZE - 1) {
+                    break fspath;
+                } else if ((y ^= (buffer[position++] << 7)) < 0) {
+                    x = y ^ (~0 << 7);
+                } else if ((y ^= (buffer[position++] << 14)) >= 0) {
+                    x = y ^ ((~0 << 7) ^ (~0 << 14));
+                } else if ((y ^= (buffer[position++] << 21)) < 0) {
+                    x = y ^ ((~0 << 7) ^ (~0 << 14) ^ (~0 << 21));
+                } else if ((x = y ^ ((long) buffer[position++] << 28)) >= 0L) {
+                    x ^= (~0L << 7) ^ (~0L << 14) ^ (~0L << 21) ^ (~0L << 28);
+                } else if ((x ^= ((long) buffer[position++] << 35)) < 0L) {
+                    x ^= (~0L << 7) ^ (~0L << 14) ^ (~0L << 21) ^ (~0L << 28) ^ (~0L << 35);
+                } else if ((x ^= ((long) buffer[position++] << 42)) >= 0L) {
+                    x ^= (~0L << 7) ^ (~0L << 14) ^ (~0L << 21) ^ (~0L << 28) ^ (~0L << 35) ^ (~0L << 42);
+                } else if ((x ^= ((long) buffer[position++] << 49)) < 0L) {
+                    x ^=
+                            (~0L << 7)
+                                    ^ (~0L << 14)
+                                    ^ (~0L << 21)
+                                    ^ (~0L << 28)
+                                    ^ (~0L << 35)
+                                    ^ (~0L << 42)
+                                    ^ (~0L << 49);
+                } else {
+                    x ^= ((long) buffer[position++] << 56);
+                    x ^=
+                            (~0L << 7)
+                                    ^ (~0L << 14)
+                                    ^ (~0L << 21)
+                                    ^ (~0L << 28)
+                                    ^ (~0L << 35)
+                                    ^ (~0L << 42)
+                                    ^ (~0L << 49)
+                                    ^ (~0L << 56);
+                    if (x < 0L) {
+                        if (buffer[position++] < 0L) {
+                            break fspath;
+                        }
+                    }
+                }
+                source.position = position;
+                return x;
+            }
+
+            return readVarInt64Slow();
+        }
+
+        @Override
+        protected int readFixed32Unchecked() {
+            var source = this.source;
+            if(!source.require(Integer.BYTES)) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            var buffer = source.buffer;
+            var position = source.position;
+            source.position = position + Integer.BYTES;
+            return buffer[position] & 255
+                    | (buffer[position + 1] & 255) << 8
+                    | (buffer[position + 2] & 255) << 16
+                    | (buffer[position + 3] & 255) << 24;
+        }
+
+        @Override
+        protected long readFixed64Unchecked() {
+            var source = this.source;
+            if(!source.require(Long.BYTES)) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            var buffer = source.buffer;
+            var position = source.position;
+            source.position = position + Long.BYTES;
+            return (long) buffer[position] & 255L
+                    | ((long) buffer[position + 1] & 255L) << 8
+                    | ((long) buffer[position + 2] & 255L) << 16
+                    | ((long) buffer[position + 3] & 255L) << 24
+                    | ((long) buffer[position + 4] & 255L) << 32
+                    | ((long) buffer[position + 5] & 255L) << 40
+                    | ((long) buffer[position + 6] & 255L) << 48
+                    | ((long) buffer[position + 7] & 255L) << 56;
+        }
+
+        @Override
+        public ByteBuffer readBytes(int size) {
+            return ByteBuffer.wrap(source.readBytes(size));
+        }
+
+        @Override
+        public ProtobufString readString(int size) {
+            return ProtobufString.lazy(source.readBytes(size), 0, size);
+        }
+
+        @Override
+        protected void skipBytes(int size) {
+            source.skipBytes(size);
+        }
+
+        // If the whole field is already buffered, it's decoded in bulk from the chunk
+        @Override
+        protected int readVarInt32Packed(int size, int[] results) {
+            var source = this.source;
+            if(source.available() < size) {
+                return super.readVarInt32Packed(size, results);
+            }
+
+            var count = ProtobufVarInts.decodeInt32(source.buffer, source.position, size, results);
+            source.position += size;
+            return count;
+        }
+
+        @Override
+        protected int readVarInt64Packed(int size, long[] results) {
+            var source = this.source;
+            if(source.available() < size) {
+                return super.readVarInt64Packed(size, results);
+            }
+
+            var count = ProtobufVarInts.decodeInt64(source.buffer, source.position, size, results);
+            source.position += size;
+            return count;
+        }
+
+        // The input stream can't be rewound, so the field is kept in the buffer, using the marker, while it's skipped and then copied
+        @Override
+        protected ByteBuffer readRawField() {
+            var source = this.source;
+            source.marker = source.position;
+            skipField();
+            var result = Arrays.copyOfRange(source.buffer, source.marker, source.position);
+            source.marker = -1;
+            return ByteBuffer.wrap(result);
+        }
+
+        @Override
+        public void mark() {
+            source.marker = source.position;
+        }
+
+        @Override
         public void rewind() {
-            this.bufferReadPosition = 0;
-            this.bufferLength = bufferWritePosition - bufferReadPosition;
-            if(length != -1) {
-                this.position -= bufferLength;
+            if(source.marker == -1) {
+                throw new InvalidMarkException();
             }
+
+            source.position = source.marker;
+            source.marker = -1;
         }
 
         @Override
         public boolean isFinished() {
-            if (length != -1) {
-                return position >= length;
+            if (limit != -1) {
+                return source.absolutePosition() >= limit;
             }
 
-            mark();
-            var result = readByte() == -1;
-            rewind();
-            return result;
+            return source.available() == 0 && !source.fill();
         }
 
+        // The length of the input stream isn't known, so the bytes are buffered: the bulk decoders can then read them from the chunk
         @Override
-        public Stream subStream(int size) {
-            var result = new Stream(inputStream, size, buffer, bufferReadPosition, bufferWritePosition, bufferLength);
-            if(length != -1) {
-                position += size;
+        protected boolean hasRemaining(int size) {
+            if(limit != -1 && limit - source.absolutePosition() < size) {
+                return false;
             }
-            return result;
+
+            return source.require(size);
+        }
+
+        // The sub stream shares the same source, so there is no need to skip its bytes here
+        @Override
+        public Stream subStream(int size) {
+            return new Stream(source, source.absolutePosition() + size);
         }
     }
 
+    // The stream used for byte arrays, which is final so that the decoders that only see byte arrays can inline its methods
+    // Positions are absolute indexes in the array and every primitive is read from the array directly:
+    // no mark or rewind is needed to fall back to the slow path of a var int, and fixed values are read as little endian words
     private static final class Bytes extends ProtobufInputStream {
+        private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+        private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
         private final byte[] buffer;
-        private final int offset;
-        private final int length;
+        private final int limit;
         private int position;
         private int marker;
         private Bytes(byte[] buffer, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
             this.buffer = buffer;
-            this.offset = offset;
-            this.length = length;
+            this.limit = offset + length;
+            this.position = offset;
+            this.marker = -1;
+        }
+
+        // Overridden so that the tag is read by the array specific var int reader
+        @Override
+        public boolean readTag() {
+            if(position >= limit) {
+                return false;
+            }
+
+            return super.setTag(readInt32Unchecked());
         }
 
         @Override
         public byte readByte() {
-            return buffer[offset + position++];
+            if(position >= limit) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            return buffer[position++];
         }
 
         @Override
         public ByteBuffer readBytes(int size) {
-            var result = ByteBuffer.wrap(buffer, offset + position, size);
+            checkRemaining(size);
+            var result = ByteBuffer.wrap(buffer, position, size);
             position += size;
             return result;
         }
 
         @Override
         public ProtobufString readString(int size) {
-            var result = ProtobufString.lazy(buffer, offset + position, size);
+            checkRemaining(size);
+            var result = ProtobufString.lazy(buffer, position, size);
             position += size;
             return result;
         }
 
+        // Source: https://github.com/protocolbuffers/protobuf/blob/main/java/core/src/main/java/com/google/protobuf/CodedInputStream.java
+        // Same algorithm as the one in ProtobufInputStream, but indexing the array directly
+        // If the var int could span past the end of the stream, the slow path is used
+        @Override
+        protected int readInt32Unchecked() {
+            var buffer = this.buffer;
+            var position = this.position;
+            fspath:
+            {
+                if(position == limit) {
+                    break fspath;
+                }
+
+                int x;
+                if ((x = buffer[position++]) >= 0) {
+                    this.position = position;
+                    return x;
+                } else if (limit - position < MAX_VAR_INT_SIZE - 1) {
+                    break fspath;
+                } else if ((x ^= (buffer[position++] << 7)) < 0) {
+                    x ^= (~0 << 7);
+                } else if ((x ^= (buffer[position++] << 14)) >= 0) {
+                    x ^= (~0 << 7) ^ (~0 << 14);
+                } else if ((x ^= (buffer[position++] << 21)) < 0) {
+                    x ^= (~0 << 7) ^ (~0 << 14) ^ (~0 << 21);
+                } else {
+                    int y = buffer[position++];
+                    x ^= y << 28;
+                    x ^= (~0 << 7) ^ (~0 << 14) ^ (~0 << 21) ^ (~0 << 28);
+                    if (y < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0
+                            && buffer[position++] < 0) {
+                        break fspath;
+                    }
+                }
+                this.position = position;
+                return x;
+            }
+
+            return (int) readVarInt64Slow();
+        }
+
+        @Override
+        protected long readInt64Unchecked() {
+            var buffer = this.buffer;
+            var position = this.position;
+            fspath:
+            {
+                if(position == limit) {
+                    break fspath;
+                }
+
+                long x;
+                int y;
+                if ((y = buffer[position++]) >= 0) {
+                    this.position = position;
+                    return y;
+                } else if (limit - position < MAX_VAR_INT_SIZE - 1) {
+                    break fspath;
+                } else if ((y ^= (buffer[position++] << 7)) < 0) {
+                    x = y ^ (~0 << 7);
+                } else if ((y ^= (buffer[position++] << 14)) >= 0) {
+                    x = y ^ ((~0 << 7) ^ (~0 << 14));
+                } else if ((y ^= (buffer[position++] << 21)) < 0) {
+                    x = y ^ ((~0 << 7) ^ (~0 << 14) ^ (~0 << 21));
+                } else if ((x = y ^ ((long) buffer[position++] << 28)) >= 0L) {
+                    x ^= (~0L << 7) ^ (~0L << 14) ^ (~0L << 21) ^ (~0L << 28);
+                } else if ((x ^= ((long) buffer[position++] << 35)) < 0L) {
+                    x ^= (~0L << 7) ^ (~0L << 14) ^ (~0L << 21) ^ (~0L << 28) ^ (~0L << 35);
+                } else if ((x ^= ((long) buffer[position++] << 42)) >= 0L) {
+                    x ^= (~0L << 7) ^ (~0L << 14) ^ (~0L << 21) ^ (~0L << 28) ^ (~0L << 35) ^ (~0L << 42);
+                } else if ((x ^= ((long) buffer[position++] << 49)) < 0L) {
+                    x ^=
+                            (~0L << 7)
+                                    ^ (~0L << 14)
+                                    ^ (~0L << 21)
+                                    ^ (~0L << 28)
+                                    ^ (~0L << 35)
+                                    ^ (~0L << 42)
+                                    ^ (~0L << 49);
+                } else {
+                    x ^= ((long) buffer[position++] << 56);
+                    x ^=
+                            (~0L << 7)
+                                    ^ (~0L << 14)
+                                    ^ (~0L << 21)
+                                    ^ (~0L << 28)
+                                    ^ (~0L << 35)
+                                    ^ (~0L << 42)
+                                    ^ (~0L << 49)
+                                    ^ (~0L << 56);
+                    if (x < 0L) {
+                        if (buffer[position++] < 0L) {
+                            break fspath;
+                        }
+                    }
+                }
+                this.position = position;
+                return x;
+            }
+
+            return readVarInt64Slow();
+        }
+
+        @Override
+        protected int readFixed32Unchecked() {
+            var position = this.position;
+            if(limit - position < Integer.BYTES) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            this.position = position + Integer.BYTES;
+            return (int) INT_VIEW.get(buffer, position);
+        }
+
+        @Override
+        protected long readFixed64Unchecked() {
+            var position = this.position;
+            if(limit - position < Long.BYTES) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            this.position = position + Long.BYTES;
+            return (long) LONG_VIEW.get(buffer, position);
+        }
+
+        @Override
+        protected void skipBytes(int size) {
+            checkRemaining(size);
+            position += size;
+        }
+
+        @Override
+        protected int readVarInt32Packed(int size, int[] results) {
+            checkRemaining(size);
+            var count = ProtobufVarInts.decodeInt32(buffer, position, size, results);
+            position += size;
+            return count;
+        }
+
+        @Override
+        protected int readVarInt64Packed(int size, long[] results) {
+            checkRemaining(size);
+            var count = ProtobufVarInts.decodeInt64(buffer, position, size, results);
+            position += size;
+            return count;
+        }
+
+        @Override
+        protected ByteBuffer readRawField() {
+            var start = position;
+            skipField();
+            return ByteBuffer.wrap(buffer, start, position - start);
+        }
+
         @Override
         public void mark() {
             this.marker = position;
@@ -620,19 +1528,211 @@ public abstract class ProtobufInputStream {
             }
 
             this.position = marker;
+            this.marker = -1;
         }
 
         @Override
         public boolean isFinished() {
-            return position >= length;
+            return position >= limit;
+        }
+
+        @Override
+        protected boolean hasRemaining(int size) {
+            return size <= limit - position;
         }
 
         @Override
         public Bytes subStream(int size) {
-            var result = new Bytes(buffer, offset + position, size);
+            checkRemaining(size);
+            var result = new Bytes(buffer, position, size);
             position += size;
             return result;
         }
+
+        private void checkRemaining(int size) {
+            if(size > limit - position) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+        }
+    }
+
+    // The state shared by a mapped stream and its sub streams
+    private static final class MappedSource {
+        // The biggest region that can be mapped in a MappedByteBuffer
+        // As a length delimited value can't be bigger than this, it always fits in a region mapped from its start
+        private static final long REGION_SIZE = Integer.MAX_VALUE;
+        // How many bytes before the position are kept in a new region, when it fits
+        // Rewinding to a marker, or reading a value that started in the previous region, then doesn't map the previous region again
+        private static final long REGION_OVERLAP = 1 << 16;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer region;
+        private long regionStart;
+        private int regionLength;
+        private long position;
+        private long marker;
+        private MappedSource(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+            this.marker = -1;
+        }
+
+        // Returns the index of position in the current region, after making sure that count bytes can be read from there
+        private int require(int count) {
+            var index = position - regionStart;
+            if(region != null && index >= 0 && index + count <= regionLength) {
+                return (int) index;
+            }
+
+            if(size - position < count) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            map(count);
+            return (int) (position - regionStart);
+        }
+
+        // Maps a region that contains the count bytes after position, and some of the bytes before it
+        // If a marker is set and fits in the region, the region starts there so that rewinding doesn't remap
+        // A mapping stays valid after the channel is closed, so the views returned by slice outlive the stream
+        private void map(int count) {
+            try {
+                var start = Math.max(0, position - Math.min(REGION_OVERLAP, REGION_SIZE - count));
+                if(marker != -1 && marker < start && position + count - marker <= REGION_SIZE) {
+                    start = marker;
+                }
+
+                var length = Math.min(REGION_SIZE, size - start);
+                this.region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                this.regionStart = start;
+                this.regionLength = (int) length;
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        private ByteBuffer slice(int size) {
+            var index = require(size);
+            position += size;
+            return region.slice(index, size);
+        }
+    }
+
+    private static final class Mapped extends ProtobufInputStream {
+        private final MappedSource source;
+        private final long limit; // The position in the file where this stream ends, or -1 if it ends with the file
+        private Mapped(MappedSource source, long limit) {
+            this.source = source;
+            this.limit = limit;
+        }
+
+        @Override
+        public byte readByte() {
+            var source = this.source;
+            var index = source.require(1); // Must be called before reading the region, as it could be remapped
+            var result = source.region.get(index);
+            source.position++;
+            return result;
+        }
+
+        @Override
+        protected int readFixed32Unchecked() {
+            var source = this.source;
+            var index = source.require(Integer.BYTES);
+            var result = source.region.getInt(index);
+            source.position += Integer.BYTES;
+            return result;
+        }
+
+        @Override
+        protected long readFixed64Unchecked() {
+            var source = this.source;
+            var index = source.require(Long.BYTES);
+            var result = source.region.getLong(index);
+            source.position += Long.BYTES;
+            return result;
+        }
+
+        @Override
+        public ByteBuffer readBytes(int size) {
+            return source.slice(size);
+        }
+
+        @Override
+        public ProtobufString readString(int size) {
+            return ProtobufString.lazy(source.slice(size).asReadOnlyBuffer());
+        }
+
+        // The region is remapped, if needed, by the next read
+        @Override
+        protected void skipBytes(int size) {
+            var source = this.source;
+            if(size > (limit != -1 ? limit : source.size) - source.position) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            source.position += size;
+        }
+
+        // The field is skipped to find its length, then mapped from its start, like any other value
+        @Override
+        protected ByteBuffer readRawField() {
+            var source = this.source;
+            var start = source.position;
+            skipField();
+            var size = Math.toIntExact(source.position - start);
+            source.position = start;
+            return source.slice(size);
+        }
+
+        @Override
+        public void mark() {
+            source.marker = source.position;
+        }
+
+        @Override
+        public void rewind() {
+            if(source.marker == -1) {
+                throw new InvalidMarkException();
+            }
+
+            source.position = source.marker;
+            source.marker = -1;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return source.position >= (limit != -1 ? limit : source.size);
+        }
+
+        @Override
+        protected boolean hasRemaining(int size) {
+            return size <= (limit != -1 ? limit : source.size) - source.position;
+        }
+
+        // The sub stream shares the same source, so there is no need to skip its bytes here
+        @Override
+        public Mapped subStream(int size) {
+            return new Mapped(source, source.position + size);
+        }
+
+        // The sub streams share the channel, so only the stream returned by fromFile closes it
+        @Override
+        public void close() {
+            if(limit == -1) {
+                source.close();
+            }
+        }
     }
 
     private static final class Buffer extends ProtobufInputStream {
@@ -653,7 +1753,7 @@ public abstract class ProtobufInputStream {
         @Override
         public ByteBuffer readBytes(int size) {
             var position = buffer.position();
-            var result = buffer.slice(position, position + size);
+            var result = buffer.slice(position, size);
             buffer.position(position + size);
             length -= size;
             return result;
@@ -662,12 +1762,98 @@ public abstract class ProtobufInputStream {
         @Override
         public ProtobufString readString(int size) {
             var position = buffer.position();
-            var result = buffer.slice(position, position + size);
+            var result = buffer.slice(position, size);
             buffer.position(position + size);
             length -= size;
             return ProtobufString.lazy(result.asReadOnlyBuffer());
         }
 
+        // The buffer passed to fromBuffer keeps the byte order chosen by the caller, the slices of the sub streams are little endian
+        @Override
+        protected int readFixed32Unchecked() {
+            var position = buffer.position();
+            if(buffer.limit() - position < Integer.BYTES) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            var result = buffer.getInt(position);
+            buffer.position(position + Integer.BYTES);
+            length -= Integer.BYTES;
+            return buffer.order() == ByteOrder.LITTLE_ENDIAN ? result : Integer.reverseBytes(result);
+        }
+
+        @Override
+        protected long readFixed64Unchecked() {
+            var position = buffer.position();
+            if(buffer.limit() - position < Long.BYTES) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            var result = buffer.getLong(position);
+            buffer.position(position + Long.BYTES);
+            length -= Long.BYTES;
+            return buffer.order() == ByteOrder.LITTLE_ENDIAN ? result : Long.reverseBytes(result);
+        }
+
+        @Override
+        protected void skipBytes(int size) {
+            if(size > buffer.remaining()) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            buffer.position(buffer.position() + size);
+            length -= size;
+        }
+
+        // Direct buffers are copied in an array first: a bulk copy is cheap compared to decoding the values one at a time
+        @Override
+        protected int readVarInt32Packed(int size, int[] results) {
+            if(size > buffer.remaining()) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            var position = buffer.position();
+            int count;
+            if(buffer.hasArray()) {
+                count = ProtobufVarInts.decodeInt32(buffer.array(), buffer.arrayOffset() + position, size, results);
+            }else {
+                var bytes = new byte[size];
+                buffer.get(position, bytes);
+                count = ProtobufVarInts.decodeInt32(bytes, 0, size, results);
+            }
+            buffer.position(position + size);
+            length -= size;
+            return count;
+        }
+
+        @Override
+        protected int readVarInt64Packed(int size, long[] results) {
+            if(size > buffer.remaining()) {
+                throw ProtobufDeserializationException.truncatedMessage();
+            }
+
+            var position = buffer.position();
+            int count;
+            if(buffer.hasArray()) {
+                count = ProtobufVarInts.decodeInt64(buffer.array(), buffer.arrayOffset() + position, size, results);
+            }else {
+                var bytes = new byte[size];
+                buffer.get(position, bytes);
+                count = ProtobufVarInts.decodeInt64(bytes, 0, size, results);
+            }
+            buffer.position(position + size);
+            length -= size;
+            return count;
+        }
+
+        // skipField updates length, so only the position needs to be tracked here
+        @Override
+        protected ByteBuffer readRawField() {
+            var start = buffer.position();
+            skipField();
+            return buffer.slice(start, buffer.position() - start);
+        }
+
         @Override
         public void mark() {
             buffer.mark();
@@ -683,10 +1869,17 @@ public abstract class ProtobufInputStream {
             return length <= 0;
         }
 
+        @Override
+        protected boolean hasRemaining(int size) {
+            return size <= Math.min(length, buffer.remaining());
+        }
+
+        // The sub stream reads a slice, so it doesn't depend on the position of this stream
         @Override
         public Buffer subStream(int size) {
-            var result = new Buffer(buffer, size);
-            buffer.position(buffer.position() + size);
+            var position = buffer.position();
+            var result = new Buffer(buffer.slice(position, size).order(ByteOrder.LITTLE_ENDIAN), size);
+            buffer.position(position + size);
             length -= size;
             return result;
         }
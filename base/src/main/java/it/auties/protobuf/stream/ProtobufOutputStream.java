@@ -2,15 +2,31 @@ package it.auties.protobuf.stream;
 
 import it.auties.protobuf.exception.ProtobufSerializationException;
 import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufUnknownFieldSet;
 import it.auties.protobuf.model.ProtobufWireType;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public abstract class ProtobufOutputStream<OUTPUT> {
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+    private static final int MIN_CHUNK_SIZE = 16;
+
     public static int getFieldSize(int fieldNumber, int wireType) {
         return getVarIntSize(ProtobufWireType.makeTag(fieldNumber, wireType));
     }
@@ -43,6 +59,11 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         }
     }
 
+    // The size of a length delimited value, whose length is written before it as a var int
+    public static int getDelimitedSize(int size) {
+        return getVarIntSize(size) + size;
+    }
+
     public static ProtobufOutputStream<byte[]> toBytes(int length) {
         return new ProtobufOutputStream.Bytes(new byte[length], 0);
     }
@@ -55,8 +76,53 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         return new ProtobufOutputStream.Buffer(buffer);
     }
 
+    // The stream is buffered: call flush or toOutput once the message is written
     public static ProtobufOutputStream<OutputStream> toStream(OutputStream buffer) {
-        return new ProtobufOutputStream.Stream(buffer);
+        return new ProtobufOutputStream.Stream(buffer, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static ProtobufOutputStream<OutputStream> toStream(OutputStream buffer, int chunkSize) {
+        return new ProtobufOutputStream.Stream(buffer, chunkSize);
+    }
+
+    // The channel is written using gathering writes when possible: call flush or toOutput once the message is written
+    public static ProtobufOutputStream<WritableByteChannel> toChannel(WritableByteChannel channel) {
+        return new ProtobufOutputStream.Channel(channel, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static ProtobufOutputStream<WritableByteChannel> toChannel(WritableByteChannel channel, int chunkSize) {
+        return new ProtobufOutputStream.Channel(channel, chunkSize);
+    }
+
+    // A chunk is written to the socket while the next one is filled: call flush or toOutput to wait until every byte is written
+    public static ProtobufOutputStream<AsynchronousSocketChannel> toChannel(AsynchronousSocketChannel channel) {
+        return new ProtobufOutputStream.AsyncChannel(channel, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static ProtobufOutputStream<AsynchronousSocketChannel> toChannel(AsynchronousSocketChannel channel, int chunkSize) {
+        return new ProtobufOutputStream.AsyncChannel(channel, chunkSize);
+    }
+
+    public static ProtobufGrowableOutputStream toGrowableBuffer(int initialCapacity) {
+        return new ProtobufGrowableOutputStream(initialCapacity, false);
+    }
+
+    public static ProtobufGrowableOutputStream toGrowableDirectBuffer(int initialCapacity) {
+        return new ProtobufGrowableOutputStream(initialCapacity, true);
+    }
+
+    // Returns the growable stream owned by the current thread after resetting it
+    // The output is only valid until the next call to this method on the same thread
+    public static ProtobufGrowableOutputStream toThreadLocalBuffer() {
+        return ProtobufGrowableOutputStream.threadLocal();
+    }
+
+    public static ProtobufReverseOutputStream toReversedBytes() {
+        return new ProtobufReverseOutputStream();
+    }
+
+    public static ProtobufReverseOutputStream toReversedBytes(int initialCapacity) {
+        return new ProtobufReverseOutputStream(initialCapacity);
     }
 
     public static int getStringSize(ProtobufString value) {
@@ -64,6 +130,11 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         return getVarIntSize(count) + count;
     }
 
+    // The number of bytes needed to encode value as UTF-8, unpaired surrogates count as a single byte because they are written as '?'
+    public static int getUtf8Size(String value) {
+        return ProtobufUtf8.encodedLength(value);
+    }
+
     public static int getBytesSize(ByteBuffer value) {
         if(value == null) {
             return 0;
@@ -72,8 +143,21 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         return getVarIntSize(value.remaining()) + value.remaining();
     }
 
+    public static int getUnknownFieldsSize(ProtobufUnknownFieldSet values) {
+        if(values == null) {
+            return 0;
+        }
+
+        var size = 0;
+        for(var i = 0; i < values.size(); i++) {
+            size += getFieldSize(values.index(i), values.wireType(i));
+            size += values.value(i).remaining();
+        }
+        return size;
+    }
+
     public static int getVarIntPackedSize(int fieldNumber, Collection<? extends Number> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return 0;
         }
 
@@ -87,8 +171,8 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         return size;
     }
 
-    public int getFixed32PackedSize(int fieldNumber, Collection<? extends Number> values) {
-        if(values == null){
+    public static int getFixed32PackedSize(int fieldNumber, Collection<? extends Number> values) {
+        if(values == null || values.isEmpty()){
             return 0;
         }
 
@@ -99,7 +183,7 @@ public abstract class ProtobufOutputStream<OUTPUT> {
     }
 
     public static int getFixed64PackedSize(int fieldNumber, Collection<? extends Number> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return 0;
         }
 
@@ -109,8 +193,8 @@ public abstract class ProtobufOutputStream<OUTPUT> {
                 + valuesSize;
     }
 
-    public static int getBoolPackedSize(int fieldNumber, Collection<Long> values) {
-        if(values == null){
+    public static int getBoolPackedSize(int fieldNumber, Collection<Boolean> values) {
+        if(values == null || values.isEmpty()){
             return 0;
         }
 
@@ -120,7 +204,174 @@ public abstract class ProtobufOutputStream<OUTPUT> {
                 + valuesSize;
     }
 
-    private void writeTag(int fieldNumber, int wireType) {
+    public static int getVarIntPackedSize(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return 0;
+        }
+
+        var valueSize = 0;
+        for (var value : values) {
+            valueSize += getVarIntSize(value);
+        }
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valueSize)
+                + valueSize;
+    }
+
+    public static int getVarIntPackedSize(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return 0;
+        }
+
+        var valueSize = 0;
+        for (var value : values) {
+            valueSize += getVarIntSize(value);
+        }
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valueSize)
+                + valueSize;
+    }
+
+    public static int getSInt32Size(int value) {
+        return getVarIntSize(encodeZigZag32(value));
+    }
+
+    public static int getSInt64Size(long value) {
+        return getVarIntSize(encodeZigZag64(value));
+    }
+
+    public static int getSInt32PackedSize(int fieldNumber, Collection<Integer> values) {
+        if(values == null || values.isEmpty()){
+            return 0;
+        }
+
+        var valueSize = 0;
+        for (var value : values) {
+            valueSize += getSInt32Size(value);
+        }
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valueSize)
+                + valueSize;
+    }
+
+    public static int getSInt64PackedSize(int fieldNumber, Collection<Long> values) {
+        if(values == null || values.isEmpty()){
+            return 0;
+        }
+
+        var valueSize = 0;
+        for (var value : values) {
+            valueSize += getSInt64Size(value);
+        }
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valueSize)
+                + valueSize;
+    }
+
+    public static int getSInt32PackedSize(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return 0;
+        }
+
+        var valueSize = 0;
+        for (var value : values) {
+            valueSize += getSInt32Size(value);
+        }
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valueSize)
+                + valueSize;
+    }
+
+    public static int getSInt64PackedSize(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return 0;
+        }
+
+        var valueSize = 0;
+        for (var value : values) {
+            valueSize += getSInt64Size(value);
+        }
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valueSize)
+                + valueSize;
+    }
+
+    // ZigZag encoding maps signed values to unsigned ones so that small negative values get short var ints: 0 -> 0, -1 -> 1, 1 -> 2, -2 -> 3...
+    // The 32 bit result is unsigned, so it's widened without extending the sign: a sint32 never takes more than 5 bytes
+    public static long encodeZigZag32(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+
+    public static long encodeZigZag64(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static int getFixed32PackedSize(int fieldNumber, int[] values) {
+        return values == null || values.length == 0 ? 0 : getFixedPackedSize(fieldNumber, values.length * 4);
+    }
+
+    public static int getFixed32PackedSize(int fieldNumber, float[] values) {
+        return values == null || values.length == 0 ? 0 : getFixedPackedSize(fieldNumber, values.length * 4);
+    }
+
+    public static int getFixed64PackedSize(int fieldNumber, long[] values) {
+        return values == null || values.length == 0 ? 0 : getFixedPackedSize(fieldNumber, values.length * 8);
+    }
+
+    public static int getFixed64PackedSize(int fieldNumber, double[] values) {
+        return values == null || values.length == 0 ? 0 : getFixedPackedSize(fieldNumber, values.length * 8);
+    }
+
+    public static int getBoolPackedSize(int fieldNumber, boolean[] values) {
+        return values == null || values.length == 0 ? 0 : getFixedPackedSize(fieldNumber, values.length);
+    }
+
+    private static int getFixedPackedSize(int fieldNumber, int valuesSize) {
+        return getFieldSize(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED)
+                + getVarIntSize(valuesSize)
+                + valuesSize;
+    }
+
+    // Sizes of the nested messages computed by the top level encode call that is currently writing to this stream
+    // The sizes are only valid while that call runs: a message could be mutated and written again to the same stream
+    private ProtobufSizeCache sizeCache;
+    // The cache installed by openSizeCache, kept between calls so that reused streams don't allocate a new one for each message
+    private ProtobufSizeCache ownedSizeCache;
+
+    // Returns null if no encode call is running, sizes are then computed without a cache
+    public ProtobufSizeCache sizeCache() {
+        return sizeCache;
+    }
+
+    // Used by the generated byte[] entry points to reuse the sizes computed while allocating this stream
+    public void useSizeCache(ProtobufSizeCache sizeCache) {
+        this.sizeCache = sizeCache;
+    }
+
+    // Installs the cache owned by this stream, unless an encode call already installed one
+    // Returns whether the caller is the top level call, which must then call closeSizeCache when it's done
+    public boolean openSizeCache() {
+        if(sizeCache != null) {
+            return false;
+        }
+
+        if(ownedSizeCache == null) {
+            ownedSizeCache = new ProtobufSizeCache();
+        }
+
+        sizeCache = ownedSizeCache;
+        return true;
+    }
+
+    // Drops the sizes of the message that was just written, so they are not reused and the message isn't kept alive
+    public void closeSizeCache() {
+        if(sizeCache != null) {
+            sizeCache.clear();
+            sizeCache = null;
+        }
+    }
+
+    protected void writeTag(int fieldNumber, int wireType) {
         writeVarIntNoTag(ProtobufWireType.makeTag(fieldNumber, wireType));
     }
 
@@ -133,7 +384,7 @@ public abstract class ProtobufOutputStream<OUTPUT> {
     }
 
     public void writeInt32Packed(int fieldNumber, Collection<Integer> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
@@ -153,12 +404,16 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeInt32(fieldNumber, value.intValue());
+    }
+
+    public void writeInt32(int fieldNumber, int value) {
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
         writeVarIntNoTag(value);
     }
 
     public void writeUInt32Packed(int fieldNumber, Collection<Integer> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
@@ -178,12 +433,16 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeUInt32(fieldNumber, value.intValue());
+    }
+
+    public void writeUInt32(int fieldNumber, int value) {
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
         writeVarIntNoTag(value);
     }
 
     public void writeFloatPacked(int fieldNumber, Collection<Float> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
@@ -200,11 +459,15 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeFloat(fieldNumber, value.floatValue());
+    }
+
+    public void writeFloat(int fieldNumber, float value) {
         writeFixed32(fieldNumber, Float.floatToRawIntBits(value));
     }
 
     public void writeFixed32Packed(int fieldNumber, Collection<Integer> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
@@ -221,11 +484,15 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeFixed32(fieldNumber, value.intValue());
+    }
+
+    public void writeFixed32(int fieldNumber, int value) {
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_FIXED32);
         writeFixed32NoTag(value);
     }
 
-    private void writeFixed32NoTag(Integer value) {
+    protected void writeFixed32NoTag(int value) {
         write((byte) (value & 0xFF));
         write((byte) ((value >> 8) & 0xFF));
         write((byte) ((value >> 16) & 0xFF));
@@ -233,15 +500,18 @@ public abstract class ProtobufOutputStream<OUTPUT> {
     }
 
     public void writeInt64Packed(int fieldNumber, Collection<Long> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
-        var size = values.size() * 8;
+        var size = 0;
+        for (var value : values) {
+            size += getVarIntSize(value);
+        }
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
         writeVarIntNoTag(size);
         for (var value : values) {
-            writeFixed64NoTag(value);
+            writeVarIntNoTag(value);
         }
     }
 
@@ -250,30 +520,88 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeInt64(fieldNumber, value.longValue());
+    }
+
+    public void writeInt64(int fieldNumber, long value) {
         writeUInt64(fieldNumber, value);
     }
 
     public void writeUInt64Packed(int fieldNumber, Collection<Long> values) {
-        if(values == null){
+        writeInt64Packed(fieldNumber, values);
+    }
+
+    public void writeUInt64(int fieldNumber, Long value) {
+        if(value == null){
+            return;
+        }
+
+        writeUInt64(fieldNumber, value.longValue());
+    }
+
+    public void writeUInt64(int fieldNumber, long value) {
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
+        writeVarIntNoTag(value);
+    }
+
+    public void writeSInt32Packed(int fieldNumber, Collection<Integer> values) {
+        if(values == null || values.isEmpty()){
             return;
         }
 
+        var size = 0;
         for (var value : values) {
-            writeUInt64(fieldNumber, value);
+            size += getSInt32Size(value);
+        }
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
+        for (var value : values) {
+            writeVarIntNoTag(encodeZigZag32(value));
         }
     }
 
-    public void writeUInt64(int fieldNumber, Long value) {
+    public void writeSInt32(int fieldNumber, Integer value) {
         if(value == null){
             return;
         }
 
-        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
-        writeVarIntNoTag(value);
+        writeSInt32(fieldNumber, value.intValue());
+    }
+
+    public void writeSInt32(int fieldNumber, int value) {
+        writeUInt64(fieldNumber, encodeZigZag32(value));
+    }
+
+    public void writeSInt64Packed(int fieldNumber, Collection<Long> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var size = 0;
+        for (var value : values) {
+            size += getSInt64Size(value);
+        }
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
+        for (var value : values) {
+            writeVarIntNoTag(encodeZigZag64(value));
+        }
+    }
+
+    public void writeSInt64(int fieldNumber, Long value) {
+        if(value == null){
+            return;
+        }
+
+        writeSInt64(fieldNumber, value.longValue());
+    }
+
+    public void writeSInt64(int fieldNumber, long value) {
+        writeUInt64(fieldNumber, encodeZigZag64(value));
     }
 
     public void writeDoublePacked(int fieldNumber, Collection<Double> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
@@ -290,16 +618,23 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeDouble(fieldNumber, value.doubleValue());
+    }
+
+    public void writeDouble(int fieldNumber, double value) {
         writeFixed64(fieldNumber, Double.doubleToRawLongBits(value));
     }
 
     public void writeFixed64Packed(int fieldNumber, Collection<Long> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
+        var size = values.size() * 8;
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
         for (var value : values) {
-            writeFixed64(fieldNumber, value);
+            writeFixed64NoTag(value);
         }
     }
 
@@ -308,12 +643,16 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             return;
         }
 
+        writeFixed64(fieldNumber, value.longValue());
+    }
+
+    public void writeFixed64(int fieldNumber, long value) {
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_FIXED64);
         writeFixed64NoTag(value);
     }
 
-    private void writeFixed64NoTag(Long value) {
-        write((byte) ((int) ((long) value) & 0xFF));
+    protected void writeFixed64NoTag(long value) {
+        write((byte) ((int) value & 0xFF));
         write((byte) ((int) (value >> 8) & 0xFF));
         write((byte) ((int) (value >> 16) & 0xFF));
         write((byte) ((int) (value >> 24) & 0xFF));
@@ -324,7 +663,7 @@ public abstract class ProtobufOutputStream<OUTPUT> {
     }
 
     public void writeBoolPacked(int fieldNumber, Collection<Boolean> values) {
-        if(values == null){
+        if(values == null || values.isEmpty()){
             return;
         }
 
@@ -336,11 +675,148 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         }
     }
 
+    // The methods below write packed fields from primitive arrays, so no value is boxed
+    public void writeInt32Packed(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var size = 0;
+        for (var value : values) {
+            size += getVarIntSize(value);
+        }
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
+        for (var value : values) {
+            writeVarIntNoTag(value);
+        }
+    }
+
+    public void writeUInt32Packed(int fieldNumber, int[] values) {
+        writeInt32Packed(fieldNumber, values);
+    }
+
+    public void writeInt64Packed(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var size = 0;
+        for (var value : values) {
+            size += getVarIntSize(value);
+        }
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
+        for (var value : values) {
+            writeVarIntNoTag(value);
+        }
+    }
+
+    public void writeUInt64Packed(int fieldNumber, long[] values) {
+        writeInt64Packed(fieldNumber, values);
+    }
+
+    public void writeSInt32Packed(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var size = 0;
+        for (var value : values) {
+            size += getSInt32Size(value);
+        }
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
+        for (var value : values) {
+            writeVarIntNoTag(encodeZigZag32(value));
+        }
+    }
+
+    public void writeSInt64Packed(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var size = 0;
+        for (var value : values) {
+            size += getSInt64Size(value);
+        }
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(size);
+        for (var value : values) {
+            writeVarIntNoTag(encodeZigZag64(value));
+        }
+    }
+
+    public void writeFixed32Packed(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(values.length * 4);
+        for (var value : values) {
+            writeFixed32NoTag(value);
+        }
+    }
+
+    public void writeFloatPacked(int fieldNumber, float[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(values.length * 4);
+        for (var value : values) {
+            writeFixed32NoTag(Float.floatToRawIntBits(value));
+        }
+    }
+
+    public void writeFixed64Packed(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(values.length * 8);
+        for (var value : values) {
+            writeFixed64NoTag(value);
+        }
+    }
+
+    public void writeDoublePacked(int fieldNumber, double[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(values.length * 8);
+        for (var value : values) {
+            writeFixed64NoTag(Double.doubleToRawLongBits(value));
+        }
+    }
+
+    public void writeBoolPacked(int fieldNumber, boolean[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(values.length);
+        for (var value : values) {
+            write((byte) (value ? 1 : 0));
+        }
+    }
+
     public void writeBool(int fieldNumber, Boolean value) {
         if(value == null){
             return;
         }
 
+        writeBool(fieldNumber, value.booleanValue());
+    }
+
+    public void writeBool(int fieldNumber, boolean value) {
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
         write((byte) (value ? 1 : 0));
     }
@@ -353,6 +829,31 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         value.write(fieldNumber, this);
     }
 
+    // Writes a string encoding its chars as UTF-8 directly in the output, without a temporary array
+    public void writeString(int fieldNumber, String value) {
+        if(value == null){
+            return;
+        }
+
+        writeString(fieldNumber, value, getUtf8Size(value));
+    }
+
+    // length must be the value returned by getUtf8Size, so a length computed while calculating the size of a message can be reused
+    public void writeString(int fieldNumber, String value, int length) {
+        if(value == null){
+            return;
+        }
+
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarIntNoTag(length);
+        writeUtf8NoTag(value, length);
+    }
+
+    // Streams that can't write in their memory directly encode the string in a temporary array
+    protected void writeUtf8NoTag(String value, int length) {
+        write(value.getBytes(StandardCharsets.UTF_8));
+    }
+
     public void writeBytes(int fieldNumber, ByteBuffer value) {
         if(value == null){
             return;
@@ -384,12 +885,29 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         write(value, offset, size);
     }
 
+    // Writes back the unknown fields read by a deserializer, without encoding them again
+    public void writeUnknownFields(ProtobufUnknownFieldSet values) {
+        if(values == null) {
+            return;
+        }
+
+        for(var i = 0; i < values.size(); i++) {
+            writeTag(values.index(i), values.wireType(i));
+            write(values.value(i));
+        }
+    }
+
     public void writeMessage(int fieldNumber, int size) {
         writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
         writeVarIntNoTag(size);
     }
 
-    private void writeVarIntNoTag(long value) {
+    // Writes the length prefix of a message that is followed by other messages in the same stream, like protobuf-java's writeDelimitedTo
+    public void writeDelimited(int size) {
+        writeVarIntNoTag(size);
+    }
+
+    protected void writeVarIntNoTag(long value) {
         while (true) {
             if ((value & ~0x7FL) == 0) {
                 write((byte) value);
@@ -401,65 +919,348 @@ public abstract class ProtobufOutputStream<OUTPUT> {
         }
     }
 
+    // Writes the bytes buffered by this stream, if any, to its target
+    public void flush() {
+
+    }
+
     protected abstract void write(byte entry);
     protected abstract void write(byte[] entry);
     protected abstract void write(byte[] entry, int offset, int length);
     protected abstract void write(ByteBuffer entry);
     public abstract OUTPUT toOutput();
 
+    // Small writes, like tags and var ints, are collected in a chunk that is written to the output stream when it's full
+    // Payloads that don't fit in a chunk are written directly
     private static final class Stream extends ProtobufOutputStream<OutputStream> {
         private final OutputStream outputStream;
-        private Stream(OutputStream outputStream) {
+        private final byte[] buffer;
+        private int position;
+        private Stream(OutputStream outputStream, int chunkSize) {
             this.outputStream = outputStream;
+            this.buffer = new byte[Math.max(chunkSize, MIN_CHUNK_SIZE)];
         }
 
         @Override
         public void write(byte entry) {
+            if(position == buffer.length) {
+                flushBuffer();
+            }
+
+            buffer[position++] = entry;
+        }
+
+        @Override
+        public void write(byte[] entry) {
+            write(entry, 0, entry.length);
+        }
+
+        @Override
+        public void write(byte[] entry, int offset, int length) {
+            if(length <= buffer.length - position) {
+                System.arraycopy(entry, offset, buffer, position, length);
+                position += length;
+                return;
+            }
+
+            flushBuffer();
+            if(length < buffer.length) {
+                System.arraycopy(entry, offset, buffer, 0, length);
+                position = length;
+                return;
+            }
+
             try {
-                outputStream.write(entry);
+                outputStream.write(entry, offset, length);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
+        // Strings that fit in the chunk are encoded in place
         @Override
-        public void write(byte[] entry) {
+        protected void writeUtf8NoTag(String value, int length) {
+            if(length > buffer.length - position) {
+                flushBuffer();
+                if(length > buffer.length) {
+                    super.writeUtf8NoTag(value, length);
+                    return;
+                }
+            }
+
+            position = ProtobufUtf8.encode(value, buffer, position);
+        }
+
+        @Override
+        public void write(ByteBuffer entry) {
+            if(entry.hasArray()) {
+                write(entry.array(), entry.arrayOffset() + entry.position(), entry.remaining());
+                return;
+            }
+
+            // Direct buffers are copied in the chunk one piece at a time
+            var offset = entry.position();
+            var remaining = entry.remaining();
+            while (remaining > 0) {
+                if(position == buffer.length) {
+                    flushBuffer();
+                }
+
+                var length = Math.min(remaining, buffer.length - position);
+                entry.get(offset, buffer, position, length);
+                position += length;
+                offset += length;
+                remaining -= length;
+            }
+        }
+
+        private void flushBuffer() {
+            if(position == 0) {
+                return;
+            }
+
             try {
-                outputStream.write(entry);
+                outputStream.write(buffer, 0, position);
+                position = 0;
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
         @Override
-        public void write(byte[] entry, int offset, int length) {
+        public void flush() {
             try {
-                outputStream.write(entry, offset, length);
+                flushBuffer();
+                outputStream.flush();
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
+        @Override
+        public OutputStream toOutput() {
+            flush();
+            return outputStream;
+        }
+    }
+
+    // Small writes are collected in a direct chunk, so the channel doesn't need to copy them in a temporary buffer
+    // Payloads that don't fit in a chunk are not copied: they are written together with the chunk using a single gathering write
+    private static abstract class ChunkedChannel<CHANNEL> extends ProtobufOutputStream<CHANNEL> {
+        final CHANNEL channel;
+        private ByteBuffer buffer;
+        private ChunkedChannel(CHANNEL channel, int chunkSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(Math.max(chunkSize, MIN_CHUNK_SIZE));
+        }
+
+        // Writes the flipped chunk, followed by the payload if it's not null, and returns the empty chunk to fill next
+        abstract ByteBuffer writeChunk(ByteBuffer chunk, ByteBuffer payload);
+
+        @Override
+        public void write(byte entry) {
+            if(!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+
+            buffer.put(entry);
+        }
+
+        @Override
+        public void write(byte[] entry) {
+            write(entry, 0, entry.length);
+        }
+
+        @Override
+        public void write(byte[] entry, int offset, int length) {
+            if(length <= buffer.remaining()) {
+                buffer.put(entry, offset, length);
+            }else if(length < buffer.capacity()) {
+                flushBuffer();
+                buffer.put(entry, offset, length);
+            }else {
+                writeWithBuffer(ByteBuffer.wrap(entry, offset, length));
+            }
+        }
+
         @Override
         public void write(ByteBuffer entry) {
+            var length = entry.remaining();
+            if(length <= buffer.remaining()) {
+                buffer.put(buffer.position(), entry, entry.position(), length);
+                buffer.position(buffer.position() + length);
+            }else if(length < buffer.capacity()) {
+                flushBuffer();
+                buffer.put(0, entry, entry.position(), length);
+                buffer.position(length);
+            }else {
+                // Use a duplicate, so the position of the entry doesn't change
+                writeWithBuffer(entry.duplicate());
+            }
+        }
+
+        // Strings that fit in the chunk are encoded in place
+        @Override
+        protected void writeUtf8NoTag(String value, int length) {
+            if(length > buffer.remaining()) {
+                flushBuffer();
+                if(length > buffer.capacity()) {
+                    super.writeUtf8NoTag(value, length);
+                    return;
+                }
+            }
+
+            ProtobufUtf8.encode(value, length, buffer);
+        }
+
+        private void writeWithBuffer(ByteBuffer entry) {
+            buffer.flip();
+            buffer = writeChunk(buffer, entry);
+        }
+
+        private void flushBuffer() {
+            if(buffer.position() == 0) {
+                return;
+            }
+
+            buffer.flip();
+            buffer = writeChunk(buffer, null);
+        }
+
+        @Override
+        public void flush() {
+            flushBuffer();
+        }
+
+        @Override
+        public CHANNEL toOutput() {
+            flush();
+            return channel;
+        }
+    }
+
+    private static final class Channel extends ChunkedChannel<WritableByteChannel> {
+        private Channel(WritableByteChannel channel, int chunkSize) {
+            super(channel, chunkSize);
+        }
+
+        @Override
+        ByteBuffer writeChunk(ByteBuffer chunk, ByteBuffer payload) {
+            writeFully(payload == null ? new ByteBuffer[]{chunk} : new ByteBuffer[]{chunk, payload});
+            return chunk.clear();
+        }
+
+        private void writeFully(ByteBuffer[] buffers) {
             try {
-                var size = entry.remaining();
-                var bufferPosition = entry.position();
-                for(var i = 0; i < size; i++) {
-                    outputStream.write(entry.get(bufferPosition + i));
+                if(channel instanceof GatheringByteChannel gatheringChannel) {
+                    while (buffers[buffers.length - 1].hasRemaining()) {
+                        gatheringChannel.write(buffers);
+                    }
+                }else {
+                    for(var entry : buffers) {
+                        while (entry.hasRemaining()) {
+                            channel.write(entry);
+                        }
+                    }
                 }
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
+    }
+
+    // Chunks are written asynchronously: while a full chunk is being written to the socket, the next one is filled
+    // A socket only accepts one pending write, so the caller only waits when it fills a chunk before the previous one was written,
+    // when it writes a payload that doesn't fit in a chunk, as it belongs to the caller who could change it once write returns,
+    // and in flush and toOutput, after which every byte is written
+    // Waiting parks the thread on a CompletableFuture, so virtual threads are not pinned
+    private static final class AsyncChannel extends ChunkedChannel<AsynchronousSocketChannel> {
+        private ByteBuffer spare; // The chunk that is being written, or null if it wasn't allocated yet
+        private CompletableFuture<Void> pending; // The write of spare, or null if it already completed
+        private AsyncChannel(AsynchronousSocketChannel channel, int chunkSize) {
+            super(channel, chunkSize);
+        }
 
         @Override
-        public OutputStream toOutput() {
-            return outputStream;
+        ByteBuffer writeChunk(ByteBuffer chunk, ByteBuffer payload) {
+            awaitPending();
+            if(payload != null) {
+                await(write(new ByteBuffer[]{chunk, payload}));
+                return chunk.clear();
+            }
+
+            this.pending = write(new ByteBuffer[]{chunk});
+            var next = spare != null ? spare.clear() : ByteBuffer.allocateDirect(chunk.capacity());
+            this.spare = chunk;
+            return next;
+        }
+
+        @Override
+        public void flush() {
+            super.flush();
+            awaitPending();
+        }
+
+        private CompletableFuture<Void> write(ByteBuffer[] buffers) {
+            var request = new WriteRequest(channel, buffers, new CompletableFuture<>());
+            request.write();
+            return request.future();
+        }
+
+        private void awaitPending() {
+            var pending = this.pending;
+            if(pending != null) {
+                this.pending = null;
+                await(pending);
+            }
+        }
+
+        private static void await(CompletableFuture<Void> future) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        private record WriteRequest(AsynchronousSocketChannel channel, ByteBuffer[] buffers, CompletableFuture<Void> future) {
+            private void write() {
+                channel.write(buffers, 0, buffers.length, 0L, TimeUnit.MILLISECONDS, this, WriteHandler.INSTANCE);
+            }
+        }
+
+        // A gathering write can be partial, so the remaining bytes are written from the completion handler until none are left
+        private static final class WriteHandler implements CompletionHandler<Long, WriteRequest> {
+            private static final WriteHandler INSTANCE = new WriteHandler();
+
+            @Override
+            public void completed(Long result, WriteRequest request) {
+                var buffers = request.buffers();
+                if(buffers[buffers.length - 1].hasRemaining()) {
+                    request.write();
+                }else {
+                    request.future().complete(null);
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, WriteRequest request) {
+                request.future().completeExceptionally(exc);
+            }
         }
     }
 
     private static final class Bytes extends ProtobufOutputStream<byte[]> {
+        private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+        private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
         private final byte[] buffer;
         private int position;
         private Bytes(byte[] buffer, int offset) {
@@ -472,6 +1273,18 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             buffer[position++] = entry;
         }
 
+        @Override
+        protected void writeFixed32NoTag(int value) {
+            INT_VIEW.set(buffer, position, value);
+            position += Integer.BYTES;
+        }
+
+        @Override
+        protected void writeFixed64NoTag(long value) {
+            LONG_VIEW.set(buffer, position, value);
+            position += Long.BYTES;
+        }
+
         @Override
         public void write(byte[] entry) {
             var length = entry.length;
@@ -479,6 +1292,34 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             position += length;
         }
 
+        // A string takes between one and three bytes per char: if the var int of its length has the same size in both cases,
+        // the chars are encoded right after the space reserved for it, and the length is written once it's known
+        // This way the string is scanned only once
+        @Override
+        public void writeString(int fieldNumber, String value) {
+            if(value == null){
+                return;
+            }
+
+            var chars = value.length();
+            var lengthSize = getVarIntSize(chars);
+            if(lengthSize != getVarIntSize(chars * 3L)) {
+                super.writeString(fieldNumber, value);
+                return;
+            }
+
+            writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+            var start = position + lengthSize;
+            var end = ProtobufUtf8.encode(value, buffer, start);
+            writeVarIntNoTag(end - start);
+            position = end;
+        }
+
+        @Override
+        protected void writeUtf8NoTag(String value, int length) {
+            position = ProtobufUtf8.encode(value, buffer, position);
+        }
+
         @Override
         public void write(byte[] entry, int offset, int length) {
             System.arraycopy(entry, offset, buffer, position, length);
@@ -514,19 +1355,39 @@ public abstract class ProtobufOutputStream<OUTPUT> {
             buffer.put(entry);
         }
 
+        // The buffer is provided by the caller, so its byte order can't be changed
+        @Override
+        protected void writeFixed32NoTag(int value) {
+            buffer.putInt(buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value));
+        }
+
+        @Override
+        protected void writeFixed64NoTag(long value) {
+            buffer.putLong(buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value));
+        }
+
         @Override
         public void write(byte[] entry) {
             buffer.put(entry);
         }
 
+        @Override
+        protected void writeUtf8NoTag(String value, int length) {
+            ProtobufUtf8.encode(value, length, buffer);
+        }
+
         @Override
         public void write(byte[] entry, int offset, int length) {
             buffer.put(entry, offset, length);
         }
 
+        // Use an absolute read, so the position of the entry doesn't change
         @Override
         public void write(ByteBuffer entry) {
-            buffer.put(entry);
+            var length = entry.remaining();
+            var position = buffer.position();
+            buffer.put(position, entry, entry.position(), length);
+            buffer.position(position + length);
         }
 
         @Override
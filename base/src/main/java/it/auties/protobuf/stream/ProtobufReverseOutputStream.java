@@ -0,0 +1,479 @@
+package it.auties.protobuf.stream;
+
+import it.auties.protobuf.model.ProtobufUnknownFieldSet;
+import it.auties.protobuf.model.ProtobufWireType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SequencedCollection;
+
+// An output stream that fills a growable buffer from the end towards the start
+// Each field is written value first and tag last, so the length prefix of a message can be written after its content:
+// this way a message can be serialized in a single traversal, without computing its size first
+// The fields of a message must be written in reverse order, which is what the encodeReversed methods of the generated specs do
+// Passing this stream to a forward encode method produces a corrupted output
+public final class ProtobufReverseOutputStream extends ProtobufOutputStream<byte[]> {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private byte[] buffer;
+    private int position;
+    ProtobufReverseOutputStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ProtobufReverseOutputStream(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+        this.position = buffer.length;
+    }
+
+    // The number of bytes written so far
+    // The generated code saves this value before writing a message, so its length can be computed once its content is written
+    public int size() {
+        return buffer.length - position;
+    }
+
+    // Returns a view of the input that iterates it from the last element to the first
+    public static <T> Iterable<T> reversed(Collection<T> values) {
+        if(values instanceof SequencedCollection<T> sequencedCollection) {
+            return sequencedCollection.reversed();
+        }
+
+        return new ArrayList<>(values).reversed();
+    }
+
+    @Override
+    public void writeInt32Packed(int fieldNumber, Collection<Integer> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeVarIntNoTag(value);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeInt32(int fieldNumber, int value) {
+        writeVarIntNoTag(value);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
+    }
+
+    @Override
+    public void writeUInt32Packed(int fieldNumber, Collection<Integer> values) {
+        writeInt32Packed(fieldNumber, values);
+    }
+
+    @Override
+    public void writeUInt32(int fieldNumber, int value) {
+        writeInt32(fieldNumber, value);
+    }
+
+    @Override
+    public void writeFloatPacked(int fieldNumber, Collection<Float> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeFixed32NoTag(Float.floatToRawIntBits(value));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFixed32Packed(int fieldNumber, Collection<Integer> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeFixed32NoTag(value);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFixed32(int fieldNumber, int value) {
+        writeFixed32NoTag(value);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_FIXED32);
+    }
+
+    @Override
+    public void writeInt64Packed(int fieldNumber, Collection<Long> values) {
+        writeUInt64Packed(fieldNumber, values);
+    }
+
+    @Override
+    public void writeUInt64Packed(int fieldNumber, Collection<Long> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeVarIntNoTag(value);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeUInt64(int fieldNumber, long value) {
+        writeVarIntNoTag(value);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
+    }
+
+    @Override
+    public void writeSInt32Packed(int fieldNumber, Collection<Integer> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeVarIntNoTag(encodeZigZag32(value));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeSInt64Packed(int fieldNumber, Collection<Long> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeVarIntNoTag(encodeZigZag64(value));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeDoublePacked(int fieldNumber, Collection<Double> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeFixed64NoTag(Double.doubleToRawLongBits(value));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFixed64Packed(int fieldNumber, Collection<Long> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            writeFixed64NoTag(value);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFixed64(int fieldNumber, long value) {
+        writeFixed64NoTag(value);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_FIXED64);
+    }
+
+    @Override
+    public void writeBoolPacked(int fieldNumber, Collection<Boolean> values) {
+        if(values == null || values.isEmpty()){
+            return;
+        }
+
+        var end = size();
+        for (var value : reversed(values)) {
+            write((byte) (value ? 1 : 0));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeBool(int fieldNumber, boolean value) {
+        write((byte) (value ? 1 : 0));
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_VAR_INT);
+    }
+
+    @Override
+    public void writeInt32Packed(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeVarIntNoTag(values[i]);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeInt64Packed(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeVarIntNoTag(values[i]);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeSInt32Packed(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeVarIntNoTag(encodeZigZag32(values[i]));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeSInt64Packed(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeVarIntNoTag(encodeZigZag64(values[i]));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFixed32Packed(int fieldNumber, int[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeFixed32NoTag(values[i]);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFloatPacked(int fieldNumber, float[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeFixed32NoTag(Float.floatToRawIntBits(values[i]));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeFixed64Packed(int fieldNumber, long[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeFixed64NoTag(values[i]);
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeDoublePacked(int fieldNumber, double[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            writeFixed64NoTag(Double.doubleToRawLongBits(values[i]));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeBoolPacked(int fieldNumber, boolean[] values) {
+        if(values == null || values.length == 0){
+            return;
+        }
+
+        var end = size();
+        for (var i = values.length - 1; i >= 0; i--) {
+            write((byte) (values[i] ? 1 : 0));
+        }
+        writePackedHeader(fieldNumber, end);
+    }
+
+    @Override
+    public void writeString(int fieldNumber, String value, int length) {
+        if(value == null){
+            return;
+        }
+
+        writeUtf8NoTag(value, length);
+        writeVarIntNoTag(length);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    @Override
+    public void writeBytes(int fieldNumber, ByteBuffer value) {
+        if(value == null){
+            return;
+        }
+
+        var size = value.remaining();
+        write(value);
+        writeVarIntNoTag(size);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    @Override
+    public void writeBytes(int fieldNumber, byte[] value) {
+        if(value == null){
+            return;
+        }
+
+        write(value);
+        writeVarIntNoTag(value.length);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    @Override
+    public void writeBytes(int fieldNumber, byte[] value, int offset, int size) {
+        if(value == null){
+            return;
+        }
+
+        write(value, offset, size);
+        writeVarIntNoTag(size);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    @Override
+    public void writeUnknownFields(ProtobufUnknownFieldSet values) {
+        if(values == null) {
+            return;
+        }
+
+        for(var i = values.size() - 1; i >= 0; i--) {
+            write(values.value(i));
+            writeTag(values.index(i), values.wireType(i));
+        }
+    }
+
+    // Must be called after the content of the message was written, size is its length
+    @Override
+    public void writeMessage(int fieldNumber, int size) {
+        writeVarIntNoTag(size);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    private void writePackedHeader(int fieldNumber, int end) {
+        writeVarIntNoTag(size() - end);
+        writeTag(fieldNumber, ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    // The primitives below reserve the space they need and then write their bytes in the usual order
+
+    @Override
+    protected void writeFixed32NoTag(int value) {
+        ensureCapacity(Integer.BYTES);
+        INT_VIEW.set(buffer, position -= Integer.BYTES, value);
+    }
+
+    @Override
+    protected void writeFixed64NoTag(long value) {
+        ensureCapacity(Long.BYTES);
+        LONG_VIEW.set(buffer, position -= Long.BYTES, value);
+    }
+
+    @Override
+    protected void writeVarIntNoTag(long value) {
+        var length = getVarIntSize(value);
+        ensureCapacity(length);
+        var index = position -= length;
+        while ((value & ~0x7FL) != 0) {
+            buffer[index++] = (byte) (((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[index] = (byte) value;
+    }
+
+    @Override
+    protected void writeUtf8NoTag(String value, int length) {
+        ensureCapacity(length);
+        ProtobufUtf8.encode(value, buffer, position -= length);
+    }
+
+    @Override
+    protected void write(byte entry) {
+        ensureCapacity(1);
+        buffer[--position] = entry;
+    }
+
+    @Override
+    protected void write(byte[] entry) {
+        write(entry, 0, entry.length);
+    }
+
+    @Override
+    protected void write(byte[] entry, int offset, int length) {
+        ensureCapacity(length);
+        position -= length;
+        System.arraycopy(entry, offset, buffer, position, length);
+    }
+
+    @Override
+    protected void write(ByteBuffer entry) {
+        var length = entry.remaining();
+        ensureCapacity(length);
+        position -= length;
+        entry.get(entry.position(), buffer, position, length);
+    }
+
+    // Grows the buffer, moving the bytes already written to the end of the new one
+    private void ensureCapacity(int length) {
+        if(position >= length) {
+            return;
+        }
+
+        var size = size();
+        var newLength = Math.max(buffer.length << 1, size + length);
+        var newBuffer = new byte[newLength];
+        System.arraycopy(buffer, position, newBuffer, newLength - size, size);
+        this.buffer = newBuffer;
+        this.position = newLength - size;
+    }
+
+    @Override
+    public byte[] toOutput() {
+        if(position == 0) {
+            return buffer;
+        }
+
+        return Arrays.copyOfRange(buffer, position, buffer.length);
+    }
+}
@@ -0,0 +1,99 @@
+package it.auties.protobuf.stream;
+
+import java.util.Arrays;
+
+// Identity based table that memoizes the serialized size of the messages visited during a single encode
+// The size pre-pass stores the size of every nested message here, so when the encoder needs to write the length prefix
+// of a nested message it can look it up instead of walking the whole subtree again, which would make encoding O(depth^2)
+// Keys are compared by identity, like protobuf-java's memoizedSerializedSize, so objects are never hashed or compared using equals
+// This class is not thread safe: a cache should only be used by a single encode call
+public final class ProtobufSizeCache {
+    public static final int MISSING_SIZE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] keys;
+    private int[] sizes;
+    private int count;
+    public ProtobufSizeCache() {
+        this.keys = new Object[DEFAULT_CAPACITY];
+        this.sizes = new int[DEFAULT_CAPACITY];
+    }
+
+    // Returns the size cached for value, or MISSING_SIZE if none is present
+    public int get(Object value) {
+        var mask = keys.length - 1;
+        var index = hash(value) & mask;
+        while (true) {
+            var key = keys[index];
+            if(key == value) {
+                return sizes[index];
+            }
+
+            if(key == null) {
+                return MISSING_SIZE;
+            }
+
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void put(Object value, int size) {
+        if((count + 1) * 2 > keys.length) {
+            resize();
+        }
+
+        var mask = keys.length - 1;
+        var index = hash(value) & mask;
+        while (true) {
+            var key = keys[index];
+            if(key == value) {
+                sizes[index] = size;
+                return;
+            }
+
+            if(key == null) {
+                keys[index] = value;
+                sizes[index] = size;
+                count++;
+                return;
+            }
+
+            index = (index + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Keeps the tables, so a cache can be reused by the streams that write many messages
+    public void clear() {
+        if(count == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, null);
+        count = 0;
+    }
+
+    private void resize() {
+        var oldKeys = keys;
+        var oldSizes = sizes;
+        this.keys = new Object[oldKeys.length << 1];
+        this.sizes = new int[oldSizes.length << 1];
+        this.count = 0;
+        for(var i = 0; i < oldKeys.length; i++) {
+            var key = oldKeys[i];
+            if(key != null) {
+                put(key, oldSizes[i]);
+            }
+        }
+    }
+
+    // Spread the identity hash code, as the lower bits are used to index the table
+    private static int hash(Object value) {
+        var hash = System.identityHashCode(value);
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,127 @@
+package it.auties.protobuf.stream;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+// UTF-8 encoder used to write strings directly in the memory of an output stream, without encoding them in a temporary array first
+// Unpaired surrogates are replaced with '?', like String.getBytes does, so the output is the same as the one of the JDK
+// Most strings are ASCII, so the chars are first copied in a tight loop until one that needs more than a byte is found
+// The coder of a String isn't accessible, so the fast path can't be chosen upfront:
+// an encoded length equal to the number of chars doesn't help either, because unpaired surrogates also take a single byte
+final class ProtobufUtf8 {
+    private static final byte REPLACEMENT = '?';
+
+    static int encodedLength(String value) {
+        var length = value.length();
+        var count = length;
+        var i = 0;
+        while (i < length && value.charAt(i) < 0x80) {
+            i++;
+        }
+
+        for(; i < length; i++) {
+            var ch = value.charAt(i);
+            if(ch < 0x80) {
+                continue;
+            }
+
+            if(ch < 0x800) {
+                count++;
+            }else if(!Character.isSurrogate(ch)) {
+                count += 2;
+            }else if(isSurrogatePair(value, i, length)) {
+                // Two chars, four bytes
+                count += 2;
+                i++;
+            }
+        }
+
+        return count;
+    }
+
+    // Returns the position after the last byte that was written
+    static int encode(String value, byte[] output, int offset) {
+        var chars = value.length();
+        var i = 0;
+        while (i < chars) {
+            var ch = value.charAt(i);
+            if(ch >= 0x80) {
+                break;
+            }
+
+            output[offset + i++] = (byte) ch;
+        }
+
+        var index = offset + i;
+        for(; i < chars; i++) {
+            var ch = value.charAt(i);
+            if(ch < 0x80) {
+                output[index++] = (byte) ch;
+            }else if(ch < 0x800) {
+                output[index++] = (byte) (0xC0 | (ch >>> 6));
+                output[index++] = (byte) (0x80 | (ch & 0x3F));
+            }else if(!Character.isSurrogate(ch)) {
+                output[index++] = (byte) (0xE0 | (ch >>> 12));
+                output[index++] = (byte) (0x80 | ((ch >>> 6) & 0x3F));
+                output[index++] = (byte) (0x80 | (ch & 0x3F));
+            }else if(isSurrogatePair(value, i, chars)) {
+                var codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                output[index++] = (byte) (0xF0 | (codePoint >>> 18));
+                output[index++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+                output[index++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+                output[index++] = (byte) (0x80 | (codePoint & 0x3F));
+            }else {
+                output[index++] = REPLACEMENT;
+            }
+        }
+
+        return index;
+    }
+
+    // Writes at the position of the buffer and moves it forward, like a relative put would
+    static void encode(String value, int length, ByteBuffer output) {
+        var position = output.position();
+        if(output.limit() - position < length) {
+            throw new BufferOverflowException();
+        }
+
+        if(output.hasArray()) {
+            var offset = output.arrayOffset();
+            encode(value, output.array(), offset + position);
+            output.position(position + length);
+            return;
+        }
+
+        var index = position;
+        var chars = value.length();
+        for(var i = 0; i < chars; i++) {
+            var ch = value.charAt(i);
+            if(ch < 0x80) {
+                output.put(index++, (byte) ch);
+            }else if(ch < 0x800) {
+                output.put(index++, (byte) (0xC0 | (ch >>> 6)));
+                output.put(index++, (byte) (0x80 | (ch & 0x3F)));
+            }else if(!Character.isSurrogate(ch)) {
+                output.put(index++, (byte) (0xE0 | (ch >>> 12)));
+                output.put(index++, (byte) (0x80 | ((ch >>> 6) & 0x3F)));
+                output.put(index++, (byte) (0x80 | (ch & 0x3F)));
+            }else if(isSurrogatePair(value, i, chars)) {
+                var codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                output.put(index++, (byte) (0xF0 | (codePoint >>> 18)));
+                output.put(index++, (byte) (0x80 | ((codePoint >>> 12) & 0x3F)));
+                output.put(index++, (byte) (0x80 | ((codePoint >>> 6) & 0x3F)));
+                output.put(index++, (byte) (0x80 | (codePoint & 0x3F)));
+            }else {
+                output.put(index++, REPLACEMENT);
+            }
+        }
+
+        output.position(index);
+    }
+
+    private static boolean isSurrogatePair(String value, int index, int length) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < length
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+}
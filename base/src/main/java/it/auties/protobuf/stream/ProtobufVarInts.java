@@ -0,0 +1,144 @@
+package it.auties.protobuf.stream;
+
+import it.auties.protobuf.exception.ProtobufDeserializationException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+// Bulk decoder for the var ints of a packed field, used when the whole field is available in an array
+// The bytes are loaded eight at a time and the continuation bits of the word are checked all at once (SWAR):
+// - if no byte has the continuation bit set, the word holds eight single byte var ints
+// - otherwise the single byte var ints at the start of the word are decoded, or, if the word starts with a longer var int,
+//   its 7 bit groups are joined with three shifts instead of one branch per byte
+// Var ints longer than eight bytes, which are only used by negative values, and the last bytes of the field are decoded one byte at a time
+// The Vector API could process more bytes per iteration, but it's still an incubator module, so it can't be used here
+final class ProtobufVarInts {
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long CONTINUATION_BITS = 0x8080808080808080L;
+    private static final long PAYLOAD_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final int MAX_VAR_INT_SIZE = 10;
+
+    // results must have room for a value per byte, the number of values that were decoded is returned
+    static int decodeInt32(byte[] buffer, int offset, int length, int[] results) {
+        var position = offset;
+        var end = offset + length;
+        var count = 0;
+        while (position < end) {
+            if(end - position >= Long.BYTES) {
+                var word = (long) LONG_VIEW.get(buffer, position);
+                var continuations = word & CONTINUATION_BITS;
+                if(continuations == 0) {
+                    for(var i = 0; i < Long.BYTES; i++) {
+                        results[count++] = (int) (word >>> (i << 3)) & 0x7F;
+                    }
+                    position += Long.BYTES;
+                    continue;
+                }
+
+                var singles = Long.numberOfTrailingZeros(continuations) >>> 3;
+                if(singles != 0) {
+                    for(var i = 0; i < singles; i++) {
+                        results[count++] = (int) (word >>> (i << 3)) & 0x7F;
+                    }
+                    position += singles;
+                    continue;
+                }
+
+                var terminators = ~word & CONTINUATION_BITS;
+                if(terminators != 0) {
+                    var size = (Long.numberOfTrailingZeros(terminators) >>> 3) + 1;
+                    results[count++] = (int) join(word, size);
+                    position += size;
+                    continue;
+                }
+            }
+
+            var value = 0L;
+            for(var shift = 0; ; shift += 7) {
+                if(position >= end) {
+                    throw ProtobufDeserializationException.truncatedMessage();
+                }
+
+                if(shift == MAX_VAR_INT_SIZE * 7) {
+                    throw ProtobufDeserializationException.malformedVarInt();
+                }
+
+                var b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if(b >= 0) {
+                    break;
+                }
+            }
+            results[count++] = (int) value;
+        }
+
+        return count;
+    }
+
+    static int decodeInt64(byte[] buffer, int offset, int length, long[] results) {
+        var position = offset;
+        var end = offset + length;
+        var count = 0;
+        while (position < end) {
+            if(end - position >= Long.BYTES) {
+                var word = (long) LONG_VIEW.get(buffer, position);
+                var continuations = word & CONTINUATION_BITS;
+                if(continuations == 0) {
+                    for(var i = 0; i < Long.BYTES; i++) {
+                        results[count++] = (word >>> (i << 3)) & 0x7F;
+                    }
+                    position += Long.BYTES;
+                    continue;
+                }
+
+                var singles = Long.numberOfTrailingZeros(continuations) >>> 3;
+                if(singles != 0) {
+                    for(var i = 0; i < singles; i++) {
+                        results[count++] = (word >>> (i << 3)) & 0x7F;
+                    }
+                    position += singles;
+                    continue;
+                }
+
+                var terminators = ~word & CONTINUATION_BITS;
+                if(terminators != 0) {
+                    var size = (Long.numberOfTrailingZeros(terminators) >>> 3) + 1;
+                    results[count++] = join(word, size);
+                    position += size;
+                    continue;
+                }
+            }
+
+            var value = 0L;
+            for(var shift = 0; ; shift += 7) {
+                if(position >= end) {
+                    throw ProtobufDeserializationException.truncatedMessage();
+                }
+
+                if(shift == MAX_VAR_INT_SIZE * 7) {
+                    throw ProtobufDeserializationException.malformedVarInt();
+                }
+
+                var b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if(b >= 0) {
+                    break;
+                }
+            }
+            results[count++] = value;
+        }
+
+        return count;
+    }
+
+    // Joins the 7 bit groups of the var int that takes the first size bytes of word, size must be between 1 and 8
+    // Groups are joined in pairs, then in groups of four and finally all together
+    private static long join(long word, int size) {
+        var x = size == Long.BYTES ? word & PAYLOAD_BITS : word & PAYLOAD_BITS & ((1L << (size << 3)) - 1);
+        x = ((x & 0x7F007F007F007F00L) >>> 1) | (x & 0x007F007F007F007FL);
+        x = ((x & 0x3FFF00003FFF0000L) >>> 2) | (x & 0x00003FFF00003FFFL);
+        x = ((x & 0x0FFFFFFF00000000L) >>> 4) | (x & 0x000000000FFFFFFFL);
+        return x;
+    }
+}
@@ -53,6 +53,12 @@ public class ProtobufConverterGraph {
             }
 
             if (isArcIllegal(originalFrom, currentFrom, currentTo, mixins, entry) || !types.isAssignable(currentTo, entry.to())) {
+                // An arc whose result can be passed to itself again, like a CharSequence to ProtobufString converter, can't be an intermediate step:
+                // following it would make the search loop forever
+                if (isCyclic(entry)) {
+                    continue;
+                }
+
                 var results = get(currentFrom, currentTo, mixins, entry, null);
                 if (results.isEmpty()) {
                     continue;
@@ -79,6 +85,10 @@ public class ProtobufConverterGraph {
         return List.of();
     }
 
+    private boolean isCyclic(Node entry) {
+        return !types.isParametrized(entry.arc()) && types.isAssignable(entry.to(), entry.from());
+    }
+
     private boolean isArcIllegal(TypeMirror originalFrom, TypeMirror from, TypeMirror to, Set<String> mixins, Node entry) {
         var arcOwnerQualifiedName = getDeclaredTypeName(entry.arc().getEnclosingElement().asType());
         if(arcOwnerQualifiedName == null) {
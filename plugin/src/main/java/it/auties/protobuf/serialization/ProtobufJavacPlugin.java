@@ -4,7 +4,9 @@ import com.sun.source.tree.*;
 import com.sun.source.util.Trees;
 import it.auties.protobuf.annotation.*;
 import it.auties.protobuf.builtin.*;
+import it.auties.protobuf.model.ProtobufLazy;
 import it.auties.protobuf.model.ProtobufType;
+import it.auties.protobuf.model.ProtobufUnknownFieldSet;
 import it.auties.protobuf.serialization.generator.clazz.group.ProtobufRawGroupSpecGenerator;
 import it.auties.protobuf.serialization.generator.clazz.object.ProtobufObjectBuilderGenerator;
 import it.auties.protobuf.serialization.generator.clazz.object.ProtobufObjectSpecGenerator;
@@ -27,6 +29,7 @@ import it.auties.protobuf.stream.ProtobufOutputStream;
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -45,7 +48,11 @@ import java.util.stream.Stream;
         "it.auties.protobuf.annotation.ProtobufEnumIndex"
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
+@SupportedOptions(ProtobufJavacPlugin.EAGER_STRINGS_WARNING_OPTION)
 public class ProtobufJavacPlugin extends AbstractProcessor {
+    // Pass -Aprotobuf.warnEagerStrings=true to javac to be warned about String properties that are decoded as soon as their message is
+    static final String EAGER_STRINGS_WARNING_OPTION = "protobuf.warnEagerStrings";
+
     // Mirrored list of default mixins
     private static final Class<?>[] DEFAULT_MIXINS = {
             ProtobufAtomicMixin.class,
@@ -55,7 +62,8 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
             ProtobufRepeatedMixin.class,
             ProtobufMapMixin.class,
             ProtobufFutureMixin.class,
-            ProtobufLazyMixin.class
+            ProtobufLazyMixin.class,
+            ProtobufArrayMixin.class
     };
 
     // Useful utility classes to perform checks and print errors/warnings
@@ -68,6 +76,9 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
     private ProtobufConverterGraph serializersGraph;
     private ProtobufConverterGraph deserializersGraph;
 
+    // Whether String properties that force eager UTF-8 decoding should be reported
+    private boolean warnEagerStrings;
+
     // This cache is needed because if a raw groups uses itself as a type in one of its properties
     // Then computing the properties in its serializer would cause a StackOverFlow
     // This is because the groupProperties are defined in the ProtobufSerializer
@@ -85,6 +96,7 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
         this.serializersGraph = new ProtobufConverterGraph(types);
         this.deserializersGraph = new ProtobufConverterGraph(types);
         this.rawGroupPropertiesMap = new HashMap<>();
+        this.warnEagerStrings = Boolean.parseBoolean(processingEnv.getOptions().get(EAGER_STRINGS_WARNING_OPTION));
     }
 
     // Unwrap the processing environment
@@ -261,6 +273,10 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
         var isGroup = message.getAnnotation(ProtobufGroup.class) != null;
         var messageElement = new ProtobufObjectElement(message, null, builderDelegate.orElse(null), isGroup);
         processMessage(messageElement, messageElement.element());
+        if(messageElement.isMutable() && !processMutableMessage(messageElement)) {
+            return Optional.empty();
+        }
+
         if (hasPropertiesConstructor(messageElement)) {
             return Optional.of(messageElement);
         }
@@ -269,6 +285,67 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
         return Optional.empty();
     }
 
+    // A mutable message is decoded into an existing instance by assigning each property, so a setter is needed for all of them
+    private boolean processMutableMessage(ProtobufObjectElement messageElement) {
+        var message = messageElement.element();
+        if(message.getKind() == ElementKind.RECORD) {
+            messages.printError("Illegal mutable message: records can't be mutable, use a class instead", message);
+            return false;
+        }
+
+        if(messageElement.unknownFieldsElement().isPresent()) {
+            messages.printError("Illegal mutable message: mutable messages can't declare unknown fields", message);
+            return false;
+        }
+
+        var result = true;
+        for(var property : messageElement.properties()) {
+            if(property.synthetic()) {
+                continue;
+            }
+
+            var setter = getSetter(message, property.name());
+            if(setter.isEmpty()) {
+                messages.printError("Missing setter: property %s of a mutable message must declare a non-private setter, or must be a non-private, non-final field".formatted(property.name()), message);
+                result = false;
+                continue;
+            }
+
+            messageElement.addSetter(property.index(), setter.get());
+        }
+
+        return result;
+    }
+
+    // Looks for a setter called set<Name> or <name>, or for an assignable field, in the message and in its super classes
+    private Optional<? extends Element> getSetter(TypeElement typeElement, String propertyName) {
+        VariableElement assignableField = null;
+        for(var entry : typeElement.getEnclosedElements()) {
+            switch (entry) {
+                case ExecutableElement method when method.getKind() == ElementKind.METHOD
+                        && method.getParameters().size() == 1
+                        && !method.getModifiers().contains(Modifier.PRIVATE)
+                        && !method.getModifiers().contains(Modifier.STATIC)
+                        && (method.getSimpleName().contentEquals(propertyName) || method.getSimpleName().toString().equalsIgnoreCase("set" + propertyName)) -> {
+                    return Optional.of(method);
+                }
+                case VariableElement field when field.getKind() == ElementKind.FIELD
+                        && field.getSimpleName().contentEquals(propertyName)
+                        && !field.getModifiers().contains(Modifier.PRIVATE)
+                        && !field.getModifiers().contains(Modifier.FINAL)
+                        && !field.getModifiers().contains(Modifier.STATIC) -> assignableField = field;
+                default -> {}
+            }
+        }
+
+        if(assignableField != null) {
+            return Optional.of(assignableField);
+        }
+
+        return getSuperClass(typeElement)
+                .flatMap(superClass -> getSetter(superClass, propertyName));
+    }
+
     private Optional<ExecutableElement> getMessageDeserializer(TypeElement message) {
         return message.getEnclosedElements()
                 .stream()
@@ -465,6 +542,10 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
         }
 
         var mixins = types.getMixins(unknownFieldsAnnotation);
+        if(types.isSameType(unknownFieldsType, ProtobufUnknownFieldSet.class)) {
+            return createRawUnknownFieldsElement(variableElement, unknownFieldsDeclaredType, mixins);
+        }
+
         var setter = findUnknownFieldsSetterInType(unknownFieldsDeclaredType);
         if(setter != null) {
             return checkUnknownFieldsSetter(variableElement, setter, false)
@@ -484,7 +565,36 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
     private ProtobufUnknownFieldsElement createUnknownFieldsElement(VariableElement variableElement, DeclaredType variableType, ExecutableElement setterElement, TypeMirror unknownFieldsType, List<TypeElement> mixins) {
         var defaultValue = getDefaultValue(variableElement, unknownFieldsType, mixins)
                 .orElse("new %s()".formatted(variableType)); // For now, could be improved to check if the constructor exists
-        return new ProtobufUnknownFieldsElement(variableType, defaultValue, setterElement);
+        return new ProtobufUnknownFieldsElement(variableType, defaultValue, setterElement, null);
+    }
+
+    // Raw unknown fields are written back by the serializer, so they need an accessor like properties do
+    private Optional<ProtobufUnknownFieldsElement> createRawUnknownFieldsElement(VariableElement variableElement, DeclaredType variableType, List<TypeElement> mixins) {
+        var accessor = getUnknownFieldsAccessor(variableElement)
+                .orElse(null);
+        if(accessor == null) {
+            messages.printError("Missing accessor: a non-private getter/accessor must be declared, or the unknown fields must have non-private visibility.", variableElement);
+            return Optional.empty();
+        }
+
+        var defaultValue = getDefaultValue(variableElement, variableType, mixins)
+                .orElse("new %s()".formatted(variableType));
+        return Optional.of(new ProtobufUnknownFieldsElement(variableType, defaultValue, null, accessor));
+    }
+
+    private Optional<? extends Element> getUnknownFieldsAccessor(VariableElement fieldElement) {
+        if(!fieldElement.getModifiers().contains(Modifier.PRIVATE)) {
+            return Optional.of(fieldElement);
+        }
+
+        var methods = fieldElement.getEnclosingElement()
+                .getEnclosedElements()
+                .stream()
+                .filter(entry -> entry instanceof ExecutableElement)
+                .map(entry -> (ExecutableElement) entry)
+                .filter(element -> !element.getModifiers().contains(Modifier.PRIVATE))
+                .toList();
+        return inferAccessor(fieldElement, methods);
     }
 
     private ExecutableElement findUnknownFieldsSetterInType(DeclaredType unknownFieldsDeclaredType) {
@@ -700,6 +810,10 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
     private Optional<? extends ProtobufPropertyType> getPropertyType(Element element, TypeMirror elementType, TypeMirror accessorType, ProtobufProperty property, TypeMirror rawGroupRepeatedValueType, TypeMirror rawGroupMapValueType) {
         // If the element is a method, we are processing a standalone getter where there is no field
         var mixins = types.getMixins(property);
+        if(rawGroupRepeatedValueType == null && rawGroupMapValueType == null && types.isAssignable(elementType, ProtobufLazy.class)) {
+            return getLazyType(element, property, elementType, mixins);
+        }
+
         if ((rawGroupRepeatedValueType != null && !types.isSameType(rawGroupRepeatedValueType, Object.class)) || types.isAssignable(elementType, Collection.class)) {
             return getConcreteCollectionType(element, property, elementType, mixins, rawGroupRepeatedValueType);
         }
@@ -708,6 +822,10 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
             return getConcreteMapType(property, element, elementType, mixins, rawGroupMapValueType);
         }
 
+        if(rawGroupRepeatedValueType == null && rawGroupMapValueType == null && isPrimitiveArray(elementType)) {
+            return getArrayType(element, property, elementType, mixins);
+        }
+
         if(property.mapKeyType() != ProtobufType.UNKNOWN || property.mapValueType() != ProtobufType.UNKNOWN) {
             if(property.mapKeyType() == ProtobufType.UNKNOWN) {
                 messages.printError("Type error: mapKeyType cannot be unknown if mapValueType was specified", element);
@@ -746,6 +864,71 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
     }
 
 
+    private Optional<ProtobufPropertyType.LazyType> getLazyType(Element element, ProtobufProperty property, TypeMirror elementType, List<TypeElement> mixins) {
+        if(property.type() != ProtobufType.MESSAGE) {
+            messages.printError("Type error: only message properties can be lazy", element);
+            return Optional.empty();
+        }
+
+        var valueType = types.getTypeParameter(elementType, types.getType(ProtobufLazy.class), 0)
+                .orElse(null);
+        if(!(valueType instanceof DeclaredType declaredType) || declaredType.asElement().getAnnotation(ProtobufMessage.class) == null) {
+            messages.printError("Type inference error: the type parameter of a lazy property must be a message", element);
+            return Optional.empty();
+        }
+
+        var value = new ProtobufPropertyType.NormalType(
+                property.type(),
+                valueType,
+                valueType,
+                null,
+                mixins
+        );
+        return Optional.of(new ProtobufPropertyType.LazyType(
+                elementType,
+                value,
+                "null",
+                mixins
+        ));
+    }
+
+    // byte[] is not included as it's the java type of bytes properties
+    private boolean isPrimitiveArray(TypeMirror type) {
+        return type instanceof ArrayType arrayType && switch (arrayType.getComponentType().getKind()) {
+            case INT, LONG, FLOAT, DOUBLE, BOOLEAN -> true;
+            default -> false;
+        };
+    }
+
+    private Optional<ProtobufPropertyType.ArrayType> getArrayType(Element element, ProtobufProperty property, TypeMirror elementType, List<TypeElement> mixins) {
+        var componentKind = ((ArrayType) elementType).getComponentType().getKind();
+        var expectedKind = switch (property.type()) {
+            case INT32, SINT32, UINT32, FIXED32, SFIXED32 -> TypeKind.INT;
+            case INT64, SINT64, UINT64, FIXED64, SFIXED64 -> TypeKind.LONG;
+            case FLOAT -> TypeKind.FLOAT;
+            case DOUBLE -> TypeKind.DOUBLE;
+            case BOOL -> TypeKind.BOOLEAN;
+            default -> null;
+        };
+        if(componentKind != expectedKind) {
+            messages.printError("Type error: %s cannot be used to represent a repeated property of type %s".formatted(elementType, property.type().name().toLowerCase()), element);
+            return Optional.empty();
+        }
+
+        var defaultValue = getDefaultValue(element, elementType, mixins);
+        if(defaultValue.isEmpty()) {
+            messages.printError("Type inference error: cannot determine array's default value, provide one either in the definition or using a mixin", element);
+            return Optional.empty();
+        }
+
+        return Optional.of(new ProtobufPropertyType.ArrayType(
+                elementType,
+                property.type(),
+                defaultValue.get(),
+                mixins
+        ));
+    }
+
     private void createRawGroupSpec(ProtobufPropertyType.NormalType implementation) {
         try {
             if(implementation.protobufType() != ProtobufType.GROUP) {
@@ -1017,6 +1200,11 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
             return;
         }
 
+        // A CharSequence property is assigned the ProtobufString read from the stream, so it's only decoded if its chars are accessed
+        if(from == ProtobufType.STRING && types.isSameType(to, CharSequence.class)) {
+            return;
+        }
+
         // Look for valid serializers and deserializers in the toType and mixins
         var methodPath = deserializersGraph.get(fromType, to, implementation.mixins());
         if(methodPath.isEmpty()) {
@@ -1025,6 +1213,10 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
             return;
         }
 
+        if(warnEagerStrings && from == ProtobufType.STRING && isEagerStringDeserializer(methodPath.getFirst().method())) {
+            messages.printWarning("Eager string decoding: this String property is decoded as soon as its message is. Use ProtobufString or CharSequence as its type to decode it only when it's accessed", invoker);
+        }
+
         for (var element : methodPath) {
             var annotation = element.method().getAnnotation(ProtobufDeserializer.class);
             var deserializerElement = new ProtobufDeserializerElement(
@@ -1038,6 +1230,12 @@ public class ProtobufJavacPlugin extends AbstractProcessor {
         }
     }
 
+    private boolean isEagerStringDeserializer(ExecutableElement method) {
+        return method.getEnclosingElement() instanceof TypeElement owner
+                && owner.getQualifiedName().contentEquals(ProtobufLazyMixin.class.getCanonicalName())
+                && types.isSameType(method.getReturnType(), String.class);
+    }
+
     private Object getProtobufTypeName(ProtobufType type) {
         return switch (type) {
             case MESSAGE -> "ProtobufMessage";
@@ -9,6 +9,8 @@ import it.auties.protobuf.serialization.model.converter.ProtobufSerializerElemen
 import it.auties.protobuf.serialization.support.JavaWriter;
 import it.auties.protobuf.stream.ProtobufInputStream;
 import it.auties.protobuf.stream.ProtobufOutputStream;
+import it.auties.protobuf.stream.ProtobufReverseOutputStream;
+import it.auties.protobuf.stream.ProtobufSizeCache;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.FilerException;
@@ -54,6 +56,10 @@ public class ProtobufRawGroupSpecGenerator extends ProtobufClassGenerator {
                 var serializationVisitor = new ProtobufRawGroupSerializationGenerator(rawGroup, serializerElement);
                 serializationVisitor.generate(classWriter);
 
+                // Write the single pass serializer
+                var reversedSerializationVisitor = new ProtobufRawGroupSerializationGenerator(rawGroup, serializerElement, true);
+                reversedSerializationVisitor.generate(classWriter);
+
                 // Write the deserializer
                 var deserializationVisitor = new ProtobufRawGroupDeserializationGenerator(rawGroup, serializerElement);
                 deserializationVisitor.generate(classWriter);
@@ -79,6 +85,8 @@ public class ProtobufRawGroupSpecGenerator extends ProtobufClassGenerator {
         imports.add(rawGroup.getQualifiedName().toString());
         imports.add(ProtobufInputStream.class.getName());
         imports.add(ProtobufOutputStream.class.getName());
+        imports.add(ProtobufReverseOutputStream.class.getName());
+        imports.add(ProtobufSizeCache.class.getName());
         imports.add(ProtobufWireType.class.getName());
         imports.add(Map.class.getName());
         return Collections.unmodifiableList(imports);
@@ -2,16 +2,21 @@ package it.auties.protobuf.serialization.generator.clazz.object;
 
 import it.auties.protobuf.model.ProtobufWireType;
 import it.auties.protobuf.serialization.generator.clazz.ProtobufClassGenerator;
+import it.auties.protobuf.serialization.generator.method.deserialization.object.ProtobufObjectDelimitedDeserializationGenerator;
 import it.auties.protobuf.serialization.generator.method.deserialization.object.ProtobufObjectDeserializationGenerator;
 import it.auties.protobuf.serialization.generator.method.deserialization.object.ProtobufObjectDeserializationOverloadGenerator;
+import it.auties.protobuf.serialization.generator.method.serialization.object.ProtobufObjectDelimitedSerializationGenerator;
 import it.auties.protobuf.serialization.generator.method.serialization.object.ProtobufObjectSerializationGenerator;
 import it.auties.protobuf.serialization.generator.method.serialization.object.ProtobufObjectSerializationOverloadGenerator;
 import it.auties.protobuf.serialization.generator.method.serialization.object.ProtobufObjectSizeGenerator;
+import it.auties.protobuf.serialization.generator.method.serialization.object.ProtobufObjectSizeOverloadGenerator;
 import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyElement;
 import it.auties.protobuf.serialization.support.JavaWriter;
 import it.auties.protobuf.stream.ProtobufInputStream;
 import it.auties.protobuf.stream.ProtobufOutputStream;
+import it.auties.protobuf.stream.ProtobufReverseOutputStream;
+import it.auties.protobuf.stream.ProtobufSizeCache;
 
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.PackageElement;
@@ -45,12 +50,14 @@ public class ProtobufObjectSpecGenerator extends ProtobufClassGenerator {
 
             // Declare the spec class
             try(var classWriter = compilationUnitWriter.printClassDeclaration(simpleGeneratedClassName)) {
-                if(objectElement.isEnum()) {
+                // Sparse enums don't need a lookup table, the deserializer uses a switch
+                if(objectElement.isEnum() && ProtobufObjectDeserializationGenerator.isDenseEnum(objectElement)) {
                     var objectType = objectElement.element().getSimpleName().toString();
-                    classWriter.println("private static final Map<Integer, %s> %s = new HashMap<>();".formatted(objectType, ProtobufObjectDeserializationGenerator.ENUM_VALUES_FIELD));
+                    var length = ProtobufObjectDeserializationGenerator.getDenseEnumLength(objectElement);
+                    classWriter.println("private static final %s[] %s = new %s[%s];".formatted(objectType, ProtobufObjectDeserializationGenerator.ENUM_VALUES_FIELD, objectType, length));
                     try(var staticInitBlock = classWriter.printStaticBlock()) {
                         for(var entry : objectElement.constants().entrySet()) {
-                            staticInitBlock.println("%s.put(%s, %s.%s);".formatted(ProtobufObjectDeserializationGenerator.ENUM_VALUES_FIELD, entry.getKey(), objectType, entry.getValue()));
+                            staticInitBlock.println("%s[%s] = %s.%s;".formatted(ProtobufObjectDeserializationGenerator.ENUM_VALUES_FIELD, entry.getKey(), objectType, entry.getValue()));
                         }
                     }
                 }
@@ -61,13 +68,37 @@ public class ProtobufObjectSpecGenerator extends ProtobufClassGenerator {
                 var serializationVisitor = new ProtobufObjectSerializationGenerator(objectElement);
                 serializationVisitor.generate(classWriter);
 
+                // Write the single pass serializer
+                var reversedSerializationOverloadVisitor = new ProtobufObjectSerializationOverloadGenerator(objectElement, true);
+                reversedSerializationOverloadVisitor.generate(classWriter);
+                var reversedSerializationVisitor = new ProtobufObjectSerializationGenerator(objectElement, true);
+                reversedSerializationVisitor.generate(classWriter);
+
+                // Write the length delimited serializer
+                var delimitedSerializationOverloadVisitor = new ProtobufObjectDelimitedSerializationGenerator(objectElement, true);
+                delimitedSerializationOverloadVisitor.generate(classWriter);
+                var delimitedSerializationVisitor = new ProtobufObjectDelimitedSerializationGenerator(objectElement, false);
+                delimitedSerializationVisitor.generate(classWriter);
+
                 // Write the deserializer
                 var deserializationOverloadVisitor = new ProtobufObjectDeserializationOverloadGenerator(objectElement);
                 deserializationOverloadVisitor.generate(classWriter);
                 var deserializationVisitor = new ProtobufObjectDeserializationGenerator(objectElement);
                 deserializationVisitor.generate(classWriter);
+                var projectedDeserializationVisitor = new ProtobufObjectDeserializationGenerator(objectElement, true);
+                projectedDeserializationVisitor.generate(classWriter);
+                var reusingDeserializationVisitor = new ProtobufObjectDeserializationGenerator(objectElement, false, true);
+                reusingDeserializationVisitor.generate(classWriter);
+
+                // Write the length delimited deserializer
+                var delimitedDeserializationVisitor = new ProtobufObjectDelimitedDeserializationGenerator(objectElement, false);
+                delimitedDeserializationVisitor.generate(classWriter);
+                var delimitedStreamDeserializationVisitor = new ProtobufObjectDelimitedDeserializationGenerator(objectElement, true);
+                delimitedStreamDeserializationVisitor.generate(classWriter);
 
                 // Write the size calculator
+                var sizeOverloadVisitor = new ProtobufObjectSizeOverloadGenerator(objectElement);
+                sizeOverloadVisitor.generate(classWriter);
                 var sizeVisitor = new ProtobufObjectSizeGenerator(objectElement);
                 sizeVisitor.generate(classWriter);
             }
@@ -81,9 +112,7 @@ public class ProtobufObjectSpecGenerator extends ProtobufClassGenerator {
                     message.element().getQualifiedName().toString(),
                     Arrays.class.getName(),
                     Optional.class.getName(),
-                    ProtobufOutputStream.class.getName(),
-                    Map.class.getName(),
-                    HashMap.class.getName()
+                    ProtobufOutputStream.class.getName()
             );
         }
 
@@ -91,6 +120,8 @@ public class ProtobufObjectSpecGenerator extends ProtobufClassGenerator {
         imports.add(message.element().getQualifiedName().toString());
         imports.add(ProtobufInputStream.class.getName());
         imports.add(ProtobufOutputStream.class.getName());
+        imports.add(ProtobufReverseOutputStream.class.getName());
+        imports.add(ProtobufSizeCache.class.getName());
         imports.add(ProtobufWireType.class.getName());
         if (message.properties().stream().anyMatch(ProtobufPropertyElement::required)) {
             imports.add(Objects.class.getName());
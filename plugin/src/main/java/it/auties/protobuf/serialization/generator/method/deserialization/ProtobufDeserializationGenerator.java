@@ -1,5 +1,6 @@
 package it.auties.protobuf.serialization.generator.method.deserialization;
 
+import it.auties.protobuf.model.ProtobufLazy;
 import it.auties.protobuf.model.ProtobufType;
 import it.auties.protobuf.serialization.generator.method.ProtobufMethodGenerator;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyType;
@@ -42,6 +43,18 @@ public abstract class ProtobufDeserializationGenerator<INPUT> extends ProtobufMe
         writer.printSwitchBranch(String.valueOf(index), readAssignment);
     }
 
+    // The packed readers also accept values that were not packed, and return a new array with the decoded values appended
+    protected void writeArrayDeserializer(SwitchStatementWriter writer, String name, int index, ProtobufPropertyType.ArrayType arrayType) {
+        var readMethod = getDeserializerStreamMethod(arrayType, true);
+        writer.printSwitchBranch(String.valueOf(index), "%s = %s.%s(%s)".formatted(name, INPUT_STREAM_NAME, readMethod, name));
+    }
+
+    // readBytes doesn't copy the message if the input is a byte[] or a ByteBuffer, so decoding it is deferred at no cost
+    protected void writeLazyDeserializer(SwitchStatementWriter writer, String name, int index, ProtobufPropertyType.LazyType lazyType) {
+        var specName = getSpecFromObject(lazyType.value().descriptorElementType());
+        writer.printSwitchBranch(String.valueOf(index), "%s = %s.lazy(%s.readBytes(), %s::%s)".formatted(name, ProtobufLazy.class.getName(), INPUT_STREAM_NAME, specName, METHOD_NAME));
+    }
+
     private String getReadAssignment(String name, boolean repeated, boolean packed, String readFunction, String mapTargetName) {
         if(mapTargetName != null) {
             if(repeated) {
@@ -92,14 +105,16 @@ public abstract class ProtobufDeserializationGenerator<INPUT> extends ProtobufMe
             case STRING -> "readString";
             case UNKNOWN -> throw new IllegalArgumentException("Internal bug: unknown types should not reach getDeserializerStreamMethod");
             case MESSAGE, GROUP -> "";
-            case ENUM, INT32, SINT32, UINT32 -> packed ? "readInt32Packed" : "readInt32";
+            case ENUM, INT32, UINT32 -> packed ? "readInt32Packed" : "readInt32";
+            case SINT32 -> packed ? "readSInt32Packed" : "readSInt32";
             case BYTES -> "readBytes";
             case BOOL -> packed ? "readBoolPacked" : "readBool";
             case MAP -> throw new IllegalArgumentException("Internal bug: map types should not reach getDeserializerStreamMethod");
             case FLOAT -> packed ? "readFloatPacked" : "readFloat";
             case DOUBLE -> packed ? "readDoublePacked" : "readDouble";
             case FIXED32, SFIXED32 -> packed ? "readFixed32Packed" : "readFixed32";
-            case INT64, SINT64, UINT64 -> packed ? "readInt64Packed" : "readInt64";
+            case INT64, UINT64 -> packed ? "readInt64Packed" : "readInt64";
+            case SINT64 -> packed ? "readSInt64Packed" : "readSInt64";
             case FIXED64, SFIXED64 -> packed ? "readFixed64Packed" : "readFixed64";
         };
     }
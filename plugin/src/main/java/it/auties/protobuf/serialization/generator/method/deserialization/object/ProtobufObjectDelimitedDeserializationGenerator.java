@@ -0,0 +1,72 @@
+package it.auties.protobuf.serialization.generator.method.deserialization.object;
+
+import it.auties.protobuf.serialization.generator.method.ProtobufMethodGenerator;
+import it.auties.protobuf.serialization.generator.method.deserialization.ProtobufDeserializationGenerator;
+import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
+import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter;
+
+import java.util.List;
+
+// Deserializes the messages written in a stream by encodeDelimited
+public class ProtobufObjectDelimitedDeserializationGenerator extends ProtobufMethodGenerator<ProtobufObjectElement> {
+    public static final String METHOD_NAME = "decodeDelimited";
+    public static final String STREAM_METHOD_NAME = "decodeDelimitedStream";
+
+    private static final String INPUT_STREAM_PARAMETER = "protoInputStream";
+    private static final String MESSAGE_STREAM_NAME = "protoMessageStream";
+
+    // Whether the method should return a lazy stream of all the messages instead of the next one
+    private final boolean lazy;
+    public ProtobufObjectDelimitedDeserializationGenerator(ProtobufObjectElement element, boolean lazy) {
+        super(element);
+        this.lazy = lazy;
+    }
+
+    @Override
+    protected void doInstrumentation(ClassWriter classWriter, ClassWriter.MethodWriter writer) {
+        if(lazy) {
+            var specName = getSpecFromObject(objectElement.element().asType());
+            writer.printReturn("%s.readDelimitedStream(%s::%s)".formatted(INPUT_STREAM_PARAMETER, specName, ProtobufDeserializationGenerator.METHOD_NAME));
+            return;
+        }
+
+        // Return null if there are no more messages
+        writer.printVariableDeclaration(MESSAGE_STREAM_NAME, "%s.readDelimited()".formatted(INPUT_STREAM_PARAMETER));
+        try(var ifWriter = writer.printIfStatement("%s == null".formatted(MESSAGE_STREAM_NAME))) {
+            ifWriter.printReturn("null");
+        }
+
+        writer.printReturn("%s(%s)".formatted(ProtobufDeserializationGenerator.METHOD_NAME, MESSAGE_STREAM_NAME));
+    }
+
+    @Override
+    public boolean shouldInstrument() {
+        return !objectElement.isEnum() && !objectElement.isGroup();
+    }
+
+    @Override
+    protected List<String> modifiers() {
+        return List.of("public", "static");
+    }
+
+    @Override
+    protected String returnType() {
+        var objectType = objectElement.element().getSimpleName().toString();
+        return lazy ? "java.util.stream.Stream<%s>".formatted(objectType) : objectType;
+    }
+
+    @Override
+    public String name() {
+        return lazy ? STREAM_METHOD_NAME : METHOD_NAME;
+    }
+
+    @Override
+    protected List<String> parametersTypes() {
+        return List.of("ProtobufInputStream");
+    }
+
+    @Override
+    protected List<String> parametersNames() {
+        return List.of(INPUT_STREAM_PARAMETER);
+    }
+}
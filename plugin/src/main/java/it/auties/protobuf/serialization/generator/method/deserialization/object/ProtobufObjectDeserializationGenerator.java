@@ -1,6 +1,9 @@
 package it.auties.protobuf.serialization.generator.method.deserialization.object;
 
+import it.auties.protobuf.annotation.ProtobufMessage;
 import it.auties.protobuf.exception.ProtobufDeserializationException;
+import it.auties.protobuf.model.ProtobufProjection;
+import it.auties.protobuf.model.ProtobufType;
 import it.auties.protobuf.serialization.generator.method.deserialization.ProtobufDeserializationGenerator;
 import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyElement;
@@ -11,9 +14,13 @@ import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter.MethodWri
 import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter.SwitchStatementWriter;
 import it.auties.protobuf.stream.ProtobufInputStream;
 
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializationGenerator<ProtobufObjectElement> {
@@ -24,15 +31,41 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
     private static final String FIELD_INDEX_VARIABLE = "protoFieldIndex";
     private static final String ENUM_DEFAULT_VALUE_PARAMETER = "defaultValue";
     public static final String ENUM_VALUES_FIELD = "VALUES";
+    private static final String ENUM_VALUE_VARIABLE = "protoEnumValue";
+    private static final int DENSE_ENUM_MIN_LENGTH = 64;
+    private static final String PROJECTION_PARAMETER = "protoProjection";
+    private static final String TARGET_PARAMETER = "protoTarget";
+    private static final String REUSING_METHOD_NAME = "decodeInto";
 
+    // Whether the generated method takes a ProtobufProjection that selects the fields to decode
+    // Only messages can be projected: the decoder without a projection is generated separately, so it doesn't check the projection for every field
+    private final boolean projected;
+    // Whether the generated method is decodeInto, which decodes a mutable message into an existing instance
+    // Collections and maps are cleared and refilled, nested mutable messages are decoded into the previous instance if there was one
+    private final boolean reusing;
     public ProtobufObjectDeserializationGenerator(ProtobufObjectElement element) {
+        this(element, false, false);
+    }
+
+    public ProtobufObjectDeserializationGenerator(ProtobufObjectElement element, boolean projected) {
+        this(element, projected, false);
+    }
+
+    public ProtobufObjectDeserializationGenerator(ProtobufObjectElement element, boolean projected, boolean reusing) {
         super(element);
+        this.projected = projected;
+        this.reusing = reusing;
     }
 
     @Override
     protected void doInstrumentation(ClassWriter classWriter, MethodWriter writer) {
         if (objectElement.isEnum()) {
             createEnumDeserializer(writer);
+        }else if(reusing) {
+            try(var ifWriter = writer.printIfStatement("%s == null".formatted(TARGET_PARAMETER))) {
+                ifWriter.printReturn("%s(%s)".formatted(METHOD_NAME, INPUT_STREAM_NAME));
+            }
+            createMessageDeserializer(writer);
         }else {
             createMessageDeserializer(writer);
         }
@@ -40,7 +73,16 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
 
     @Override
     public boolean shouldInstrument() {
-        return true;
+        if(reusing) {
+            return !objectElement.isEnum() && !objectElement.isGroup() && objectElement.isMutable();
+        }
+
+        return !projected || (!objectElement.isEnum() && !objectElement.isGroup());
+    }
+
+    @Override
+    protected String name() {
+        return reusing ? REUSING_METHOD_NAME : METHOD_NAME;
     }
 
     @Override
@@ -54,6 +96,11 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
             return List.of("int", objectElement.element().getSimpleName().toString());
         } else if(objectElement.isGroup()) {
             return List.of("int", ProtobufInputStream.class.getSimpleName());
+        } else if(projected) {
+            // Qualified, so that the specs don't import ProtobufProjection only for this overload
+            return List.of(ProtobufInputStream.class.getSimpleName(), ProtobufProjection.class.getName());
+        } else if(reusing) {
+            return List.of(objectElement.element().getSimpleName().toString(), ProtobufInputStream.class.getSimpleName());
         } else {
             return List.of(ProtobufInputStream.class.getSimpleName());
         }
@@ -65,6 +112,10 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
             return List.of(ENUM_INDEX_PARAMETER, ENUM_DEFAULT_VALUE_PARAMETER);
         } else if(objectElement.isGroup()) {
             return List.of(GROUP_INDEX_PARAMETER, INPUT_STREAM_NAME);
+        } else if(projected) {
+            return List.of(INPUT_STREAM_NAME, PROJECTION_PARAMETER);
+        } else if(reusing) {
+            return List.of(TARGET_PARAMETER, INPUT_STREAM_NAME);
         } else {
             return List.of(INPUT_STREAM_NAME);
         }
@@ -85,9 +136,42 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
         }
     }
 
+    // Enums whose indexes are mostly contiguous are decoded from an array indexed by the enum index
+    // The others use a switch, which javac compiles to a binary search over the indexes
+    // Enum indexes are never negative, the plugin rejects them
+    public static boolean isDenseEnum(ProtobufObjectElement objectElement) {
+        var indexes = objectElement.constants().keySet();
+        if(indexes.isEmpty()) {
+            return false;
+        }
+
+        var max = Collections.max(indexes);
+        return max < Math.max(DENSE_ENUM_MIN_LENGTH, indexes.size() * 2);
+    }
+
+    public static int getDenseEnumLength(ProtobufObjectElement objectElement) {
+        return Collections.max(objectElement.constants().keySet()) + 1;
+    }
+
     private void createEnumDeserializer(MethodWriter writer) {
         checkPropertyIndex(writer, ENUM_INDEX_PARAMETER);
-        writer.printReturn("%s.getOrDefault(%s, %s)".formatted(ENUM_VALUES_FIELD, ENUM_INDEX_PARAMETER, ENUM_DEFAULT_VALUE_PARAMETER));
+        if(isDenseEnum(objectElement)) {
+            try(var ifWriter = writer.printIfStatement("%s < 0 || %s >= %s.length".formatted(ENUM_INDEX_PARAMETER, ENUM_INDEX_PARAMETER, ENUM_VALUES_FIELD))) {
+                ifWriter.printReturn(ENUM_DEFAULT_VALUE_PARAMETER);
+            }
+            var value = writer.printVariableDeclaration(ENUM_VALUE_VARIABLE, "%s[%s]".formatted(ENUM_VALUES_FIELD, ENUM_INDEX_PARAMETER));
+            writer.printReturn("%s != null ? %s : %s".formatted(value, value, ENUM_DEFAULT_VALUE_PARAMETER));
+        }else {
+            var enumType = objectElement.element().getSimpleName();
+            try(var switchWriter = writer.printSwitchStatement(ENUM_INDEX_PARAMETER)) {
+                for(var entry : objectElement.constants().entrySet()) {
+                    try(var switchBranchWriter = switchWriter.printSwitchBranch(String.valueOf(entry.getKey()))) {
+                        switchBranchWriter.printReturn("%s.%s".formatted(enumType, entry.getValue()));
+                    }
+                }
+            }
+            writer.printReturn(ENUM_DEFAULT_VALUE_PARAMETER);
+        }
     }
 
     private void createMessageDeserializer(MethodWriter methodWriter) {
@@ -105,7 +189,11 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
             var propertyType = property.type().descriptorElementType().toString();
             var propertyName = property.name();
             var propertyDefaultValue = property.type().descriptorDefaultValue();
-            methodWriter.printVariableDeclaration(propertyType, propertyName, propertyDefaultValue);
+            if(reusing) {
+                declareReusedProperty(methodWriter, property, propertyType, propertyName, propertyDefaultValue);
+            }else {
+                methodWriter.printVariableDeclaration(propertyType, propertyName, propertyDefaultValue);
+            }
         }
 
         // Declare the unknown fields value if needed
@@ -117,6 +205,12 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
         try(var whileWriter = methodWriter.printWhileStatement(INPUT_STREAM_NAME + ".readTag()")) {
             whileWriter.printVariableDeclaration(FIELD_INDEX_VARIABLE, INPUT_STREAM_NAME + ".index()");
             checkPropertyIndex(whileWriter, FIELD_INDEX_VARIABLE);
+            if(projected) {
+                try(var projectionWriter = whileWriter.printIfStatement("%s != null && !%s.contains(%s)".formatted(PROJECTION_PARAMETER, PROJECTION_PARAMETER, FIELD_INDEX_VARIABLE))) {
+                    projectionWriter.println("%s.skipField();".formatted(INPUT_STREAM_NAME));
+                    projectionWriter.println("continue;");
+                }
+            }
             try(var switchWriter = whileWriter.printSwitchStatement(FIELD_INDEX_VARIABLE)) {
                 for(var property : objectElement.properties()) {
                     if(property.synthetic()) {
@@ -126,6 +220,9 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
                     switch (property.type()) {
                         case ProtobufPropertyType.MapType mapType -> writeMapDeserializer(switchWriter, property.index(), property.name(), mapType);
                         case ProtobufPropertyType.CollectionType collectionType -> writeDeserializer(switchWriter, property.name(), property.index(), collectionType.value(), true, property.packed(), null);
+                        case ProtobufPropertyType.ArrayType arrayType -> writeArrayDeserializer(switchWriter, property.name(), property.index(), arrayType);
+                        case ProtobufPropertyType.LazyType lazyType -> writeLazyDeserializer(switchWriter, property.name(), property.index(), lazyType);
+                        case ProtobufPropertyType.NormalType normalType when reusing && isReusableMessage(normalType) -> writeReusedMessageDeserializer(switchWriter, property.name(), property.index(), normalType);
                         default -> writeDeserializer(switchWriter, property.name(), property.index(), property.type(), false, property.packed(), null);
                     }
                     argumentsList.add(property.name());
@@ -144,6 +241,12 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
                 .filter(ProtobufPropertyElement::required)
                 .forEach(entry -> checkRequiredProperty(methodWriter, entry));
 
+        // Assign the properties to the target
+        if(reusing) {
+            writeReusedPropertiesAssignment(methodWriter);
+            return;
+        }
+
         // Return statement
         var unknownFieldsArg = objectElement.unknownFieldsElement().isEmpty() ? "" : ", " + DEFAULT_UNKNOWN_FIELDS;
         if(objectElement.deserializer().isPresent()) {
@@ -153,11 +256,96 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
         }
     }
 
+    // Collections and maps are taken from the target, so they can be refilled, and nested mutable messages are kept so they can be decoded into
+    // All the other properties start from their default value, like in decode
+    private void declareReusedProperty(MethodWriter methodWriter, ProtobufPropertyElement property, String propertyType, String propertyName, String propertyDefaultValue) {
+        var accessorCall = getAccessorCall(TARGET_PARAMETER, property.accessor());
+        switch (property.type()) {
+            case ProtobufPropertyType.CollectionType ignored -> declareReusedContainer(methodWriter, propertyType, propertyName, propertyDefaultValue, accessorCall);
+            case ProtobufPropertyType.MapType ignored -> declareReusedContainer(methodWriter, propertyType, propertyName, propertyDefaultValue, accessorCall);
+            case ProtobufPropertyType.NormalType normalType when isReusableMessage(normalType) -> {
+                methodWriter.printVariableDeclaration(propertyType, getReusedName(propertyName), accessorCall);
+                methodWriter.printVariableDeclaration(propertyType, propertyName, propertyDefaultValue);
+            }
+            default -> methodWriter.printVariableDeclaration(propertyType, propertyName, propertyDefaultValue);
+        }
+    }
+
+    // The accessor could return an unmodifiable view or copy, like List.copyOf or a List.of() default, which can't be cleared
+    // In that case the container isn't reused and a new one is created, like in decode
+    private void declareReusedContainer(MethodWriter methodWriter, String propertyType, String propertyName, String propertyDefaultValue, String accessorCall) {
+        methodWriter.printVariableDeclaration(propertyType, propertyName, accessorCall);
+        try(var ifWriter = methodWriter.printIfStatement("%s != null".formatted(propertyName))) {
+            try(var tryWriter = ifWriter.printTryStatement()) {
+                tryWriter.println("%s.clear();".formatted(propertyName));
+            }
+
+            try(var catchWriter = ifWriter.printCatchStatement(UnsupportedOperationException.class.getSimpleName(), getUnmodifiableName(propertyName))) {
+                catchWriter.printFieldAssignment(propertyName, "null");
+            }
+        }
+
+        try(var ifWriter = methodWriter.printIfStatement("%s == null".formatted(propertyName))) {
+            ifWriter.printFieldAssignment(propertyName, propertyDefaultValue);
+        }
+    }
+
+    // decodeInto falls back to decode if the previous instance is null
+    private void writeReusedMessageDeserializer(SwitchStatementWriter writer, String name, int index, ProtobufPropertyType.NormalType normalType) {
+        var specName = getSpecFromObject(normalType.descriptorElementType());
+        writer.printSwitchBranch(String.valueOf(index), "%s = %s.%s(%s, %s.readLengthDelimited())".formatted(name, specName, REUSING_METHOD_NAME, getReusedName(name), INPUT_STREAM_NAME));
+    }
+
+    private void writeReusedPropertiesAssignment(MethodWriter methodWriter) {
+        for(var property : objectElement.properties()) {
+            if(property.synthetic()) {
+                continue;
+            }
+
+            var setter = objectElement.setter(property.index())
+                    .orElseThrow(() -> new IllegalArgumentException("Internal bug: missing setter for property " + property.name()));
+            switch (setter) {
+                case ExecutableElement method -> methodWriter.println("%s.%s(%s);".formatted(TARGET_PARAMETER, method.getSimpleName(), property.name()));
+                case VariableElement field -> methodWriter.printFieldAssignment("%s.%s".formatted(TARGET_PARAMETER, field.getSimpleName()), property.name());
+                default -> throw new IllegalArgumentException("Internal bug: unexpected setter " + setter);
+            }
+        }
+
+        methodWriter.printReturn(TARGET_PARAMETER);
+    }
+
+    // A nested message can be decoded into the previous instance only if it's mutable and no converter is involved
+    private boolean isReusableMessage(ProtobufPropertyType.NormalType normalType) {
+        if(normalType.protobufType() != ProtobufType.MESSAGE || normalType.deserializers().size() != 1) {
+            return false;
+        }
+
+        if(!(normalType.descriptorElementType() instanceof DeclaredType declaredType)) {
+            return false;
+        }
+
+        var message = declaredType.asElement().getAnnotation(ProtobufMessage.class);
+        return message != null && message.mutable();
+    }
+
+    private String getReusedName(String name) {
+        return name + "Reused";
+    }
+
+    private String getUnmodifiableName(String name) {
+        return name + "Unmodifiable";
+    }
+
     private void writeDefaultPropertyDeserializer(SwitchStatementWriter switchWriter) {
         var unknownFieldsElement = objectElement.unknownFieldsElement()
                 .orElse(null);
         if(unknownFieldsElement == null) {
-            switchWriter.printSwitchBranch("default", "%s.readUnknown(false)".formatted(INPUT_STREAM_NAME));
+            switchWriter.printSwitchBranch("default", "%s.skipField()".formatted(INPUT_STREAM_NAME));
+            return;
+        }
+
+        if(unknownFieldsElement.isRaw()) {
+            switchWriter.printSwitchBranch("default", "%s.add(%s, %s.wireType(), %s.readUnknownRaw())".formatted(DEFAULT_UNKNOWN_FIELDS, FIELD_INDEX_VARIABLE, INPUT_STREAM_NAME, INPUT_STREAM_NAME));
             return;
         }
 
@@ -171,7 +359,25 @@ public class ProtobufObjectDeserializationGenerator extends ProtobufDeserializat
         }
     }
 
+    // Required properties that are not part of the projection are not checked
     private void checkRequiredProperty(MethodWriter writer, ProtobufPropertyElement property) {
+        if(projected) {
+            try(var projectionWriter = writer.printIfStatement("%s == null || %s.contains(%s)".formatted(PROJECTION_PARAMETER, PROJECTION_PARAMETER, property.index()))) {
+                checkRequiredPropertyValue(projectionWriter, property);
+            }
+        }else {
+            checkRequiredPropertyValue(writer, property);
+        }
+    }
+
+    private void checkRequiredPropertyValue(BodyWriter writer, ProtobufPropertyElement property) {
+        if (property.type() instanceof ProtobufPropertyType.ArrayType) {
+            try(var ifWriter = writer.printIfStatement("%s.length == 0".formatted(property.name()))) {
+                ifWriter.println("throw new NullPointerException(\"Missing required property: %s\");".formatted(property.name()));
+            }
+            return;
+        }
+
         if (!(property.type() instanceof ProtobufPropertyType.CollectionType)) {
             writer.println("Objects.requireNonNull(%s, \"Missing required property: %s\");".formatted(property.name(), property.name()));
             return;
@@ -16,10 +16,19 @@ import java.util.Optional;
 
 public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMethodGenerator<INPUT> {
     public static final String METHOD_NAME = "encode";
+    public static final String REVERSED_METHOD_NAME = "encodeReversed";
     private static final String OUTPUT_OBJECT_PARAMETER = "protoOutputStream";
 
+    // Whether the generated method targets a ProtobufReverseOutputStream
+    // In this case fields are written in reverse order, and the length of a message is written after its content
+    protected final boolean reversed;
     public ProtobufSerializationGenerator(INPUT element) {
+        this(element, false);
+    }
+
+    public ProtobufSerializationGenerator(INPUT element, boolean reversed) {
         super(element);
+        this.reversed = reversed;
     }
 
     protected void writeRepeatedSerializer(BodyWriter writer, int index, String name, String accessor, ProtobufPropertyType.CollectionType collectionType, boolean packed, boolean nullCheck, boolean cast) {
@@ -29,7 +38,8 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
         }else {
             var bodyWriter = nullCheck ? writer.printIfStatement("%s != null".formatted(accessor)) : writer;
             var localVariableName = "%sEntry".formatted(name); // Prevent shadowing
-            try(var forEachWriter = bodyWriter.printForEachStatement(localVariableName, accessor)) {
+            var iterable = reversed ? "ProtobufReverseOutputStream.reversed(%s)".formatted(accessor) : accessor;
+            try(var forEachWriter = bodyWriter.printForEachStatement(localVariableName, iterable)) {
                 writeNormalSerializer(forEachWriter, index, name, localVariableName, collectionType.value(), false, true, cast);
             }
             if(nullCheck) {
@@ -38,38 +48,98 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
         }
     }
 
+    protected void writeArraySerializer(BodyWriter writer, int index, String name, String accessor, ProtobufPropertyType.ArrayType arrayType, boolean packed) {
+        if(packed) {
+            var writeMethod = getStreamMethodName(arrayType.protobufType(), true);
+            writer.println("%s.%s(%s, %s);".formatted(OUTPUT_OBJECT_PARAMETER, writeMethod.orElseThrow(), index, accessor));
+            return;
+        }
+
+        var writeMethod = getStreamMethodName(arrayType.protobufType(), false);
+        var arrayName = writer.printVariableDeclaration(name, accessor);
+        try(var ifWriter = writer.printIfStatement("%s != null".formatted(arrayName))) {
+            var indexName = "%sIndex".formatted(name); // Prevent shadowing
+            var forWriter = reversed
+                    ? ifWriter.printForStatement("var %s = %s.length - 1".formatted(indexName, arrayName), "%s >= 0".formatted(indexName), "%s--".formatted(indexName))
+                    : ifWriter.printForStatement("var %s = 0".formatted(indexName), "%s < %s.length".formatted(indexName, arrayName), "%s++".formatted(indexName));
+            try(forWriter) {
+                forWriter.println("%s.%s(%s, %s[%s]);".formatted(OUTPUT_OBJECT_PARAMETER, writeMethod.orElseThrow(), index, arrayName, indexName));
+            }
+        }
+    }
+
+    // If the message was never accessed, its encoded bytes are copied as they are
+    protected void writeLazySerializer(BodyWriter writer, int index, String name, String accessor, ProtobufPropertyType.LazyType lazyType) {
+        var specName = getSpecFromObject(lazyType.value().descriptorElementType());
+        var lazyName = writer.printVariableDeclaration(name, accessor);
+        try(var ifWriter = writer.printIfStatement("%s != null".formatted(lazyName))) {
+            var encodedName = ifWriter.printVariableDeclaration(name + "Encoded", "%s.encoded()".formatted(lazyName));
+            try(var encodedWriter = ifWriter.printIfStatement("%s != null".formatted(encodedName))) {
+                encodedWriter.println("%s.writeBytes(%s, %s);".formatted(OUTPUT_OBJECT_PARAMETER, index, encodedName));
+            }
+            var valueName = ifWriter.printVariableDeclaration(name + "Value", "%s == null ? %s.get() : null".formatted(encodedName, lazyName));
+            try(var valueWriter = ifWriter.printIfStatement("%s != null".formatted(valueName))) {
+                if(reversed) {
+                    var valueEnd = valueWriter.printVariableDeclaration(name + "ValueEnd", "%s.size()".formatted(OUTPUT_OBJECT_PARAMETER));
+                    valueWriter.println("%s.%s(%s, %s);".formatted(specName, REVERSED_METHOD_NAME, valueName, OUTPUT_OBJECT_PARAMETER));
+                    valueWriter.println("%s.writeMessage(%s, %s.size() - %s);".formatted(OUTPUT_OBJECT_PARAMETER, index, OUTPUT_OBJECT_PARAMETER, valueEnd));
+                }else {
+                    valueWriter.println("%s.writeMessage(%s, %s.%s(%s, %s.sizeCache()));".formatted(OUTPUT_OBJECT_PARAMETER, index, specName, ProtobufSizeGenerator.METHOD_NAME, valueName, OUTPUT_OBJECT_PARAMETER));
+                    valueWriter.println("%s.%s(%s, %s);".formatted(specName, METHOD_NAME, valueName, OUTPUT_OBJECT_PARAMETER));
+                }
+            }
+        }
+    }
+
     protected void writeMapSerializer(BodyWriter writer, int index, String name, String accessor, ProtobufPropertyType.MapType mapType, boolean nullCheck, boolean cast) {
         var bodyWriter = nullCheck ? writer.printIfStatement("%s != null".formatted(accessor)) : writer;
         var localVariableName = "%sEntry".formatted(name); // Prevent shadowing
-        try(var forWriter = bodyWriter.printForEachStatement(localVariableName, accessor + ".entrySet()")) {
-            var methodName = ProtobufSizeGenerator.getMapPropertyMethodName(name);
-            forWriter.println("%s.writeMessage(%s, %s(%s%s));".formatted(OUTPUT_OBJECT_PARAMETER, index, methodName, cast ? "(java.util.Map.Entry) " : "", localVariableName));
-            writeNormalSerializer(
-                    forWriter,
-                    1,
-                    name + "Key",
-                    "%s.getKey()".formatted(localVariableName),
-                    mapType.keyType(),
-                    false,
-                    false,
-                    cast
-            );
-            writeNormalSerializer(
-                    forWriter,
-                    2,
-                    name + "Value",
-                    "%s.getValue()".formatted(localVariableName),
-                    mapType.valueType(),
-                    true,
-                    true,
-                    cast
-            );
+        var entries = reversed ? "ProtobufReverseOutputStream.reversed(%s.entrySet())".formatted(accessor) : accessor + ".entrySet()";
+        try(var forWriter = bodyWriter.printForEachStatement(localVariableName, entries)) {
+            if(reversed) {
+                // The entry is written value first, then its length is known
+                var entryEnd = forWriter.printVariableDeclaration(name + "EntryEnd", "%s.size()".formatted(OUTPUT_OBJECT_PARAMETER));
+                writeMapValueSerializer(forWriter, name, localVariableName, mapType, cast);
+                writeMapKeySerializer(forWriter, name, localVariableName, mapType, cast);
+                forWriter.println("%s.writeMessage(%s, %s.size() - %s);".formatted(OUTPUT_OBJECT_PARAMETER, index, OUTPUT_OBJECT_PARAMETER, entryEnd));
+            }else {
+                var methodName = ProtobufSizeGenerator.getMapPropertyMethodName(name);
+                forWriter.println("%s.writeMessage(%s, %s(%s%s, %s.sizeCache()));".formatted(OUTPUT_OBJECT_PARAMETER, index, methodName, cast ? "(java.util.Map.Entry) " : "", localVariableName, OUTPUT_OBJECT_PARAMETER));
+                writeMapKeySerializer(forWriter, name, localVariableName, mapType, cast);
+                writeMapValueSerializer(forWriter, name, localVariableName, mapType, cast);
+            }
         }
         if(nullCheck) {
             bodyWriter.close();
         }
     }
 
+    private void writeMapKeySerializer(BodyWriter writer, String name, String localVariableName, ProtobufPropertyType.MapType mapType, boolean cast) {
+        writeNormalSerializer(
+                writer,
+                1,
+                name + "Key",
+                "%s.getKey()".formatted(localVariableName),
+                mapType.keyType(),
+                false,
+                false,
+                cast
+        );
+    }
+
+    private void writeMapValueSerializer(BodyWriter writer, String name, String localVariableName, ProtobufPropertyType.MapType mapType, boolean cast) {
+        writeNormalSerializer(
+                writer,
+                2,
+                name + "Value",
+                "%s.getValue()".formatted(localVariableName),
+                mapType.valueType(),
+                true,
+                true,
+                cast
+        );
+    }
+
     protected void writeNormalSerializer(BodyWriter writer, int index, String name, String value, ProtobufPropertyType type, boolean declareVariable, boolean variableNullCheck, boolean cast) {
         writeCustomSerializer(
                 writer,
@@ -128,10 +198,17 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
             var lastSerializer = i == serializers.size() - 1;
             if ((lastSerializer && writeMethod.isEmpty()) || serializer.returnType().getKind() == TypeKind.VOID) {
                 var statements = new ArrayList<String>();
-                if(type.protobufType() == ProtobufType.MESSAGE) {
+                if(type.protobufType() != ProtobufType.MESSAGE) {
+                    statements.add("%s;".formatted(result));
+                }else if(reversed) {
+                    var messageEnd = propertyName + "End";
+                    statements.add("var %s = %s.size();".formatted(messageEnd, OUTPUT_OBJECT_PARAMETER));
+                    statements.add("%s;".formatted(result));
+                    statements.add("%s.writeMessage(%s, %s.size() - %s);".formatted(OUTPUT_OBJECT_PARAMETER, index, OUTPUT_OBJECT_PARAMETER, messageEnd));
+                }else {
                     statements.add(getMessageMethod(index, serializer, propertyName));
+                    statements.add("%s;".formatted(result));
                 }
-                statements.add("%s;".formatted(result));
                 objectWriter.handle(nestedWriters.getLast(), propertyName, statements);
                 continue;
             }
@@ -166,14 +243,16 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
         }
     }
 
+    // The size of the message was already computed, and cached, when the size of its parent was calculated
     private String getMessageMethod(int index, ProtobufSerializerElement serializer, String propertyName) {
         var parent = (TypeElement) serializer.delegate().getEnclosingElement();
-        return "%s.writeMessage(%s, %s.%s(%s));".formatted(
+        return "%s.writeMessage(%s, %s.%s(%s, %s.sizeCache()));".formatted(
                 OUTPUT_OBJECT_PARAMETER,
                 index,
                 parent.getQualifiedName(),
                 ProtobufSizeGenerator.METHOD_NAME,
-                propertyName
+                propertyName,
+                OUTPUT_OBJECT_PARAMETER
         );
     }
 
@@ -234,7 +313,7 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
             // }
             case 2 -> "%s.%s(%s, %s)".formatted(
                     parent.getQualifiedName(),
-                    serializer.delegate().getSimpleName(),
+                    getSpecMethodName(serializer),
                     value,
                     OUTPUT_OBJECT_PARAMETER
             );
@@ -249,7 +328,7 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
             // }
             case 3 -> "%s.%s(%s, %s, %s)".formatted(
                     parent.getQualifiedName(),
-                    serializer.delegate().getSimpleName(),
+                    getSpecMethodName(serializer),
                     groupIndex,
                     value,
                     OUTPUT_OBJECT_PARAMETER
@@ -265,16 +344,23 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
         };
     }
 
+    // Synthetic serializers are the encode methods of the spec classes, if we are writing in reverse the reversed variant should be used
+    private String getSpecMethodName(ProtobufSerializerElement serializer) {
+        return reversed ? REVERSED_METHOD_NAME : serializer.delegate().getSimpleName().toString();
+    }
+
     // Returns the method to use to deserialize a property from ProtobufOutputStream
     // Messages and enums don't have a serialization method, instead they use synthetic serializers
     // Maps should not be passed to this method, assuming the correct logic of this class
     // Unknown types are not expected, as assured by PreliminaryChecks
+    // Scalar methods have a boxed and an unboxed overload: primitive properties are passed as they are, so they bind to the unboxed one
     private Optional<String> getStreamMethodName(ProtobufType protobufType, boolean packed) {
         // If available, get the method defined in ProtobufOutputStream for the input type
         var result = switch (protobufType) {
             case STRING -> "writeString";
             case UNKNOWN -> throw new IllegalArgumentException("Internal bug: unknown types should not reach getSerializerStreamMethod");
-            case ENUM, INT32, SINT32 -> "writeInt32";
+            case ENUM, INT32 -> "writeInt32";
+            case SINT32 -> "writeSInt32";
             case MESSAGE, GROUP -> null;
             case BYTES -> "writeBytes";
             case BOOL -> "writeBool";
@@ -283,7 +369,8 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
             case FLOAT -> "writeFloat";
             case DOUBLE -> "writeDouble";
             case FIXED32, SFIXED32 -> "writeFixed32";
-            case INT64, SINT64 -> "writeInt64";
+            case INT64 -> "writeInt64";
+            case SINT64 -> "writeSInt64";
             case UINT64 -> "writeUInt64";
             case FIXED64, SFIXED64 -> "writeFixed64";
         };
@@ -299,6 +386,6 @@ public abstract class ProtobufSerializationGenerator<INPUT> extends ProtobufMeth
 
     @Override
     protected String name() {
-        return METHOD_NAME;
+        return reversed ? REVERSED_METHOD_NAME : METHOD_NAME;
     }
 }
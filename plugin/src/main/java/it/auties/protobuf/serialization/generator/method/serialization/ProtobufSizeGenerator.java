@@ -14,6 +14,7 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
     public static final String METHOD_NAME = "sizeOf";
     private static final String INPUT_OBJECT_PARAMETER = "protoInputObject";
     private static final String OUTPUT_SIZE_NAME = "protoOutputSize";
+    public static final String SIZE_CACHE_PARAMETER = "protoSizeCache";
 
     public ProtobufSizeGenerator(INPUT element) {
         super(element);
@@ -49,13 +50,58 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
         return switch (collectionType.value().protobufType()) {
             case FLOAT, FIXED32, SFIXED32 -> "getFixed32PackedSize";
             case DOUBLE, FIXED64, SFIXED64 -> "getFixed64PackedSize";
-            case BOOL -> "getFixedBoolPackedSize";
-            case INT32, SINT32, UINT32, INT64, SINT64, UINT64 -> "getVarIntPackedSize";
+            case BOOL -> "getBoolPackedSize";
+            case INT32, UINT32, INT64, UINT64 -> "getVarIntPackedSize";
+            case SINT32 -> "getSInt32PackedSize";
+            case SINT64 -> "getSInt64PackedSize";
             default ->
                     throw new IllegalArgumentException("Internal bug: unexpected packed type " + collectionType.value().protobufType());
         };
     }
 
+    protected void writeArraySize(BodyWriter writer, int index, String name, String accessor, boolean packed, ProtobufPropertyType.ArrayType arrayType) {
+        if(packed) {
+            var methodName = switch (arrayType.protobufType()) {
+                case FLOAT, FIXED32, SFIXED32 -> "getFixed32PackedSize";
+                case DOUBLE, FIXED64, SFIXED64 -> "getFixed64PackedSize";
+                case BOOL -> "getBoolPackedSize";
+                case INT32, UINT32, INT64, UINT64 -> "getVarIntPackedSize";
+                case SINT32 -> "getSInt32PackedSize";
+                case SINT64 -> "getSInt64PackedSize";
+                default -> throw new IllegalArgumentException("Internal bug: unexpected array type " + arrayType.protobufType());
+            };
+            writer.println("%s += ProtobufOutputStream.%s(%s, %s);".formatted(OUTPUT_SIZE_NAME, methodName, index, accessor));
+            return;
+        }
+
+        var arrayName = writer.printVariableDeclaration(name, accessor);
+        try(var bodyWriter = writer.printIfStatement(arrayName + " != null")) {
+            var arrayEntryName = name + "Entry";
+            try(var forEachWriter = bodyWriter.printForEachStatement(arrayEntryName, arrayName)) {
+                writePrimitiveCalculator(forEachWriter, index, arrayType.protobufType(), null, arrayEntryName);
+            }
+        }
+    }
+
+    protected void writeLazySize(BodyWriter writer, int index, String name, String accessor, ProtobufPropertyType.LazyType lazyType) {
+        var specName = getSpecFromObject(lazyType.value().descriptorElementType());
+        var lazyName = writer.printVariableDeclaration(name, accessor);
+        try(var ifWriter = writer.printIfStatement("%s != null".formatted(lazyName))) {
+            var encodedName = ifWriter.printVariableDeclaration(name + "Encoded", "%s.encoded()".formatted(lazyName));
+            try(var encodedWriter = ifWriter.printIfStatement("%s != null".formatted(encodedName))) {
+                writeFieldTagSize(encodedWriter, index, ProtobufType.MESSAGE);
+                encodedWriter.println("%s += ProtobufOutputStream.getBytesSize(%s);".formatted(OUTPUT_SIZE_NAME, encodedName));
+            }
+            var valueName = ifWriter.printVariableDeclaration(name + "Value", "%s == null ? %s.get() : null".formatted(encodedName, lazyName));
+            try(var valueWriter = ifWriter.printIfStatement("%s != null".formatted(valueName))) {
+                writeFieldTagSize(valueWriter, index, ProtobufType.MESSAGE);
+                var serializedSizeName = valueWriter.printVariableDeclaration(name + "SerializedSize", "%s.%s(%s, %s)".formatted(specName, METHOD_NAME, valueName, SIZE_CACHE_PARAMETER));
+                valueWriter.println("%s += ProtobufOutputStream.getVarIntSize(%s);".formatted(OUTPUT_SIZE_NAME, serializedSizeName));
+                valueWriter.println("%s += %s;".formatted(OUTPUT_SIZE_NAME, serializedSizeName));
+            }
+        }
+    }
+
     protected void writeMapSize(ClassWriter classWriter, BodyWriter methodWriter, int index, String name, String accessor, ProtobufPropertyType.MapType mapType, boolean cast) {
         var mapFieldName = name + "MapField";
         methodWriter.printVariableDeclaration(mapFieldName, accessor);
@@ -66,7 +112,7 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
             try (var forEachWriter = writer.printForEachStatement(mapEntryFieldName, mapFieldName + ".entrySet()")) {
                 writeFieldTagSize(forEachWriter, index, ProtobufType.MAP);
                 var mapEntrySizeFieldName = mapEntryFieldName + "Size";
-                forEachWriter.printVariableDeclaration(mapEntrySizeFieldName, "%s(%s%s)".formatted(methodName, cast ? "(java.util.Map.Entry) " : "", mapEntryFieldName));
+                forEachWriter.printVariableDeclaration(mapEntrySizeFieldName, "%s(%s%s, %s)".formatted(methodName, cast ? "(java.util.Map.Entry) " : "", mapEntryFieldName, SIZE_CACHE_PARAMETER));
                 forEachWriter.println("%s += ProtobufOutputStream.getVarIntSize(%s);".formatted(OUTPUT_SIZE_NAME, mapEntrySizeFieldName));
                 forEachWriter.println("%s += %s;".formatted(OUTPUT_SIZE_NAME, mapEntrySizeFieldName));
             }
@@ -77,7 +123,8 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
         var keyQualifiedName = getQualifiedName(mapType.keyType().accessorType());
         var valueQualifiedName = getQualifiedName(mapType.valueType().accessorType());
         var parameter = "java.util.Map.Entry<%s, %s> %s".formatted(keyQualifiedName, valueQualifiedName, INPUT_OBJECT_PARAMETER);
-        try (var methodWriter = classWriter.printMethodDeclaration(List.of("private", "static"), "int", methodName, parameter)) {
+        var cacheParameter = "ProtobufSizeCache %s".formatted(SIZE_CACHE_PARAMETER);
+        try (var methodWriter = classWriter.printMethodDeclaration(List.of("private", "static"), "int", methodName, parameter, cacheParameter)) {
             methodWriter.printVariableDeclaration(OUTPUT_SIZE_NAME, "0");
             writeNormalSize(
                     methodWriter,
@@ -145,7 +192,11 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
             case MESSAGE, ENUM -> {
                 var parameterType = type.serializers().isEmpty() ? type.descriptorElementType() : type.serializers().getLast().parameterType();
                 var specName = getSpecFromObject(parameterType);
-                var serializedObjectFieldName = writer.printVariableDeclaration(name + "SerializedSize", "%s.%s(%s)".formatted(specName, name(), accessor));
+                // Enums are sized as var-ints, so they don't take a size cache
+                var sizeCall = isEnum(parameterType)
+                        ? "%s.%s(%s)".formatted(specName, name(), accessor)
+                        : "%s.%s(%s, %s)".formatted(specName, name(), accessor, SIZE_CACHE_PARAMETER);
+                var serializedObjectFieldName = writer.printVariableDeclaration(name + "SerializedSize", sizeCall);
                 if (!isEnum(parameterType)) {
                     writer.println("%s += ProtobufOutputStream.getVarIntSize(%s);".formatted(OUTPUT_SIZE_NAME, serializedObjectFieldName));
                 }
@@ -156,11 +207,11 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
                         .orElse(null);
                 if (lastSerializer != null) {
                     var rawGroupSpecType = getSpecFromObject(lastSerializer.parameterType());
-                    writer.println("%s += %s.%s(%s, %s%s);".formatted(OUTPUT_SIZE_NAME, rawGroupSpecType, name(), index, castType != null ? "(java.util.Map) " : "", accessor));
+                    writer.println("%s += %s.%s(%s, %s%s, %s);".formatted(OUTPUT_SIZE_NAME, rawGroupSpecType, name(), index, castType != null ? "(java.util.Map) " : "", accessor, SIZE_CACHE_PARAMETER));
                 } else {
                     var groupType = type.serializers().isEmpty() ? type.descriptorElementType() : type.serializers().getLast().parameterType();
                     var groupSpecType = getSpecFromObject(groupType);
-                    var serializedObjectFieldName = writer.printVariableDeclaration(name + "SerializedSize", "%s.%s(%s, %s%s)".formatted(groupSpecType, name(), index, castType != null ? "(%s) ".formatted(castType) : "", accessor));
+                    var serializedObjectFieldName = writer.printVariableDeclaration(name + "SerializedSize", "%s.%s(%s, %s%s, %s)".formatted(groupSpecType, name(), index, castType != null ? "(%s) ".formatted(castType) : "", accessor, SIZE_CACHE_PARAMETER));
                     writer.println("%s += %s;".formatted(OUTPUT_SIZE_NAME, serializedObjectFieldName));
                 }
             }
@@ -174,8 +225,10 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
             case BOOL -> "1";
             case STRING -> "ProtobufOutputStream.getStringSize(%s%s)".formatted(castType != null ? "(%s) ".formatted(castType) : "", accessor);
             case BYTES -> "ProtobufOutputStream.getBytesSize(%s%s)".formatted(castType != null ? "(%s) ".formatted(castType) : "", accessor);
-            case ENUM, INT32, SINT32, UINT32, INT64, SINT64, UINT64 ->
+            case ENUM, INT32, UINT32, INT64, UINT64 ->
                     "ProtobufOutputStream.getVarIntSize(%s%s)".formatted(castType != null ? "(%s) ".formatted(castType) : "", accessor);
+            case SINT32 -> "ProtobufOutputStream.getSInt32Size(%s%s)".formatted(castType != null ? "(%s) ".formatted(castType) : "", accessor);
+            case SINT64 -> "ProtobufOutputStream.getSInt64Size(%s%s)".formatted(castType != null ? "(%s) ".formatted(castType) : "", accessor);
             case FIXED32, SFIXED32, FLOAT -> "4";
             case FIXED64, SFIXED64, DOUBLE -> "8";
             default -> throw new IllegalArgumentException("Internal bug: %s property types should not reach writePrimitiveCalculator".formatted(protobufType.name()));
@@ -190,10 +243,10 @@ public abstract class ProtobufSizeGenerator<INPUT> extends ProtobufSerialization
 
         var wireType = switch (protobufType) {
             case GROUP -> throw new IllegalArgumentException("Internal bug: group property types should not reach writeFieldTagSize");
-            case MESSAGE, ENUM, STRING, BYTES, MAP -> ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED;
+            case MESSAGE, STRING, BYTES, MAP -> ProtobufWireType.WIRE_TYPE_LENGTH_DELIMITED;
             case FLOAT, FIXED32, SFIXED32 -> ProtobufWireType.WIRE_TYPE_FIXED32;
             case DOUBLE, SFIXED64, FIXED64 -> ProtobufWireType.WIRE_TYPE_FIXED64;
-            case BOOL, INT32, SINT32, UINT32, INT64, UINT64, SINT64 -> ProtobufWireType.WIRE_TYPE_VAR_INT;
+            case ENUM, BOOL, INT32, SINT32, UINT32, INT64, UINT64, SINT64 -> ProtobufWireType.WIRE_TYPE_VAR_INT;
             case UNKNOWN -> throw new IllegalArgumentException("Internal bug: unknown property types should not reach writeFieldTagSize");
         };
         writer.println("%s += ProtobufOutputStream.getFieldSize(%s, %s);".formatted(OUTPUT_SIZE_NAME, index, wireType));
@@ -40,17 +40,22 @@ public class ProtobufRawGroupSerializationGenerator extends ProtobufSerializatio
 
     private final ProtobufSerializerElement serializerElement;
     public ProtobufRawGroupSerializationGenerator(TypeElement objectElement, ProtobufSerializerElement serializerElement) {
-        super(objectElement);
+        this(objectElement, serializerElement, false);
+    }
+
+    public ProtobufRawGroupSerializationGenerator(TypeElement objectElement, ProtobufSerializerElement serializerElement, boolean reversed) {
+        super(objectElement, reversed);
         this.serializerElement = serializerElement;
     }
 
     @Override
     protected void doInstrumentation(ClassWriter classWriter, MethodWriter methodWriter) {
-        // Opens the group at the provided index
-        methodWriter.println("%s.writeGroupStart(%s);".formatted(OUTPUT_OBJECT_PARAMETER, INDEX_PARAMETER));
+        // Opens the group at the provided index, or closes it if we are writing in reverse
+        methodWriter.println("%s.%s(%s);".formatted(OUTPUT_OBJECT_PARAMETER, reversed ? "writeGroupEnd" : "writeGroupStart", INDEX_PARAMETER));
 
-        // Loop through the input properties
-        try (var forEachBody = methodWriter.printForEachStatement(PROPERTY_NAME, PROPERTIES_PARAMETER + ".entrySet()")) {
+        // Loop through the input properties, from the last one if we are writing in reverse
+        var properties = reversed ? "ProtobufReverseOutputStream.reversed(%s.entrySet())".formatted(PROPERTIES_PARAMETER) : PROPERTIES_PARAMETER + ".entrySet()";
+        try (var forEachBody = methodWriter.printForEachStatement(PROPERTY_NAME, properties)) {
             // Declare a variable for the value of the property
             var propertyValueName = forEachBody.printVariableDeclaration(PROPERTY_VALUE_NAME, PROPERTY_NAME + ".getValue()");
 
@@ -125,8 +130,8 @@ public class ProtobufRawGroupSerializationGenerator extends ProtobufSerializatio
             }
         }
 
-        // Close the previously opened group
-        methodWriter.println("%s.writeGroupEnd(%s);".formatted(OUTPUT_OBJECT_PARAMETER, INDEX_PARAMETER));
+        // Close the previously opened group, or open it if we are writing in reverse
+        methodWriter.println("%s.%s(%s);".formatted(OUTPUT_OBJECT_PARAMETER, reversed ? "writeGroupStart" : "writeGroupEnd", INDEX_PARAMETER));
     }
 
     @Override
@@ -146,7 +151,7 @@ public class ProtobufRawGroupSerializationGenerator extends ProtobufSerializatio
 
     @Override
     protected List<String> parametersTypes() {
-        return List.of("int", "Map<Integer, Object>", "ProtobufOutputStream");
+        return List.of("int", "Map<Integer, Object>", reversed ? "ProtobufReverseOutputStream" : "ProtobufOutputStream");
     }
 
     @Override
@@ -63,6 +63,8 @@ public class ProtobufRawGroupSizeGenerator extends ProtobufSizeGenerator<TypeEle
                                         true
                                 );
                             }
+                            case ProtobufPropertyType.ArrayType ignored -> throw new IllegalArgumentException("Internal bug: array property types should not reach raw groups");
+                            case ProtobufPropertyType.LazyType ignored -> throw new IllegalArgumentException("Internal bug: lazy property types should not reach raw groups");
                             case ProtobufPropertyType.NormalType normalType -> writeNormalSize(
                                     switchCaseBody,
                                     entry.getKey(),
@@ -82,11 +84,11 @@ public class ProtobufRawGroupSizeGenerator extends ProtobufSizeGenerator<TypeEle
 
     @Override
     protected List<String> parametersTypes() {
-        return List.of("int", "Map<Integer, Object>");
+        return List.of("int", "Map<Integer, Object>", "ProtobufSizeCache");
     }
 
     @Override
     protected List<String> parametersNames() {
-        return List.of(INDEX_PARAMETER, PROPERTIES_PARAMETER);
+        return List.of(INDEX_PARAMETER, PROPERTIES_PARAMETER, SIZE_CACHE_PARAMETER);
     }
 }
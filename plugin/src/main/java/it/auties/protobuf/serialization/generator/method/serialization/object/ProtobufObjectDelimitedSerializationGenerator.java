@@ -0,0 +1,106 @@
+package it.auties.protobuf.serialization.generator.method.serialization.object;
+
+import it.auties.protobuf.serialization.generator.method.ProtobufMethodGenerator;
+import it.auties.protobuf.serialization.generator.method.serialization.ProtobufSerializationGenerator;
+import it.auties.protobuf.serialization.generator.method.serialization.ProtobufSizeGenerator;
+import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
+import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter;
+
+import java.util.List;
+
+// Serializes a message prefixed by its length, so that many messages can be written in the same stream
+public class ProtobufObjectDelimitedSerializationGenerator extends ProtobufMethodGenerator<ProtobufObjectElement> {
+    public static final String METHOD_NAME = "encodeDelimited";
+
+    private static final String INPUT_OBJECT_PARAMETER = "protoInputObject";
+    private static final String OUTPUT_STREAM_PARAMETER = "protoOutputStream";
+    private static final String SIZE_CACHE_NAME = "protoSizeCache";
+    private static final String SIZE_NAME = "protoSize";
+
+    // Whether the method should return the serialized message instead of writing it to a stream
+    private final boolean overload;
+    public ProtobufObjectDelimitedSerializationGenerator(ProtobufObjectElement element, boolean overload) {
+        super(element);
+        this.overload = overload;
+    }
+
+    @Override
+    protected void doInstrumentation(ClassWriter classWriter, ClassWriter.MethodWriter writer) {
+        // Check if the input is null
+        try(var ifWriter = writer.printIfStatement("%s == null".formatted(INPUT_OBJECT_PARAMETER))) {
+            if(overload) {
+                ifWriter.printReturn("null");
+            }else {
+                ifWriter.printReturn();
+            }
+        }
+
+        // The overload computes the size before the stream exists, so it uses its own cache, which is dropped with the stream
+        if(overload) {
+            writer.printVariableDeclaration(SIZE_CACHE_NAME, "new ProtobufSizeCache()");
+            writer.printVariableDeclaration(SIZE_NAME, "%s(%s, %s)".formatted(ProtobufSizeGenerator.METHOD_NAME, INPUT_OBJECT_PARAMETER, SIZE_CACHE_NAME));
+            writer.printVariableDeclaration(OUTPUT_STREAM_PARAMETER, "ProtobufOutputStream.toBytes(ProtobufOutputStream.getDelimitedSize(%s))".formatted(SIZE_NAME));
+            writer.println("%s.useSizeCache(%s);".formatted(OUTPUT_STREAM_PARAMETER, SIZE_CACHE_NAME));
+        }else {
+            // Same scope as encode: the top level call installs the cache of the stream and clears it when it's done
+            try(var ifWriter = writer.printIfStatement("%s.openSizeCache()".formatted(OUTPUT_STREAM_PARAMETER))) {
+                try(var tryWriter = ifWriter.printTryStatement()) {
+                    tryWriter.println("%s(%s, %s);".formatted(METHOD_NAME, INPUT_OBJECT_PARAMETER, OUTPUT_STREAM_PARAMETER));
+                }
+
+                try(var finallyWriter = ifWriter.printFinallyStatement()) {
+                    finallyWriter.println("%s.closeSizeCache();".formatted(OUTPUT_STREAM_PARAMETER));
+                }
+
+                ifWriter.printReturn();
+            }
+
+            writer.printVariableDeclaration(SIZE_NAME, "%s(%s, %s.sizeCache())".formatted(ProtobufSizeGenerator.METHOD_NAME, INPUT_OBJECT_PARAMETER, OUTPUT_STREAM_PARAMETER));
+        }
+
+        writer.println("%s.writeDelimited(%s);".formatted(OUTPUT_STREAM_PARAMETER, SIZE_NAME));
+        writer.println("%s(%s, %s);".formatted(ProtobufSerializationGenerator.METHOD_NAME, INPUT_OBJECT_PARAMETER, OUTPUT_STREAM_PARAMETER));
+        if(overload) {
+            writer.printReturn("%s.toOutput()".formatted(OUTPUT_STREAM_PARAMETER));
+        }
+    }
+
+    @Override
+    public boolean shouldInstrument() {
+        return !objectElement.isEnum() && !objectElement.isGroup();
+    }
+
+    @Override
+    protected List<String> modifiers() {
+        return List.of("public", "static");
+    }
+
+    @Override
+    protected String returnType() {
+        return overload ? "byte[]" : "void";
+    }
+
+    @Override
+    public String name() {
+        return METHOD_NAME;
+    }
+
+    @Override
+    protected List<String> parametersTypes() {
+        var objectType = objectElement.element().getSimpleName().toString();
+        if(overload) {
+            return List.of(objectType);
+        }else {
+            return List.of(objectType, "ProtobufOutputStream");
+        }
+    }
+
+    @Override
+    protected List<String> parametersNames() {
+        if(overload) {
+            return List.of(INPUT_OBJECT_PARAMETER);
+        }else {
+            return List.of(INPUT_OBJECT_PARAMETER, OUTPUT_STREAM_PARAMETER);
+        }
+    }
+}
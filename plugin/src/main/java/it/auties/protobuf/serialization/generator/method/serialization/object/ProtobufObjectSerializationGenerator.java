@@ -2,11 +2,13 @@ package it.auties.protobuf.serialization.generator.method.serialization.object;
 
 import it.auties.protobuf.serialization.generator.method.serialization.ProtobufSerializationGenerator;
 import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
+import it.auties.protobuf.serialization.model.object.ProtobufUnknownFieldsElement;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyElement;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyType;
 import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter;
 import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter.MethodWriter;
 import it.auties.protobuf.stream.ProtobufOutputStream;
+import it.auties.protobuf.stream.ProtobufReverseOutputStream;
 
 import javax.lang.model.element.Element;
 import java.util.List;
@@ -21,6 +23,10 @@ public class ProtobufObjectSerializationGenerator extends ProtobufSerializationG
         super(element);
     }
 
+    public ProtobufObjectSerializationGenerator(ProtobufObjectElement element, boolean reversed) {
+        super(element, reversed);
+    }
+
     @Override
     protected void doInstrumentation(ClassWriter classWriter, MethodWriter writer) {
         if (objectElement.isEnum()) {
@@ -32,7 +38,7 @@ public class ProtobufObjectSerializationGenerator extends ProtobufSerializationG
 
     @Override
     public boolean shouldInstrument() {
-        return true;
+        return !reversed || !objectElement.isEnum();
     }
 
     @Override
@@ -48,12 +54,13 @@ public class ProtobufObjectSerializationGenerator extends ProtobufSerializationG
     @Override
     protected List<String> parametersTypes() {
         var objectType = objectElement.element().getSimpleName().toString();
+        var streamType = reversed ? ProtobufReverseOutputStream.class.getSimpleName() : ProtobufOutputStream.class.getSimpleName();
         if (objectElement.isEnum()) {
             return List.of(objectType);
         }else if(objectElement.isGroup()) {
-            return List.of("int", objectType, ProtobufOutputStream.class.getSimpleName());
+            return List.of("int", objectType, streamType);
         }else {
-            return List.of(objectType, ProtobufOutputStream.class.getSimpleName());
+            return List.of(objectType, streamType);
         }
     }
 
@@ -88,24 +95,67 @@ public class ProtobufObjectSerializationGenerator extends ProtobufSerializationG
             ifWriter.printReturn();
         }
 
+        // The reversed serializer doesn't need sizes
+        if(!reversed) {
+            createSizeCacheScope(writer);
+        }
+
         if(objectElement.isGroup()) {
-            writer.println("%s.writeGroupStart(%s);".formatted(OUTPUT_OBJECT_PARAMETER, GROUP_INDEX_PARAMETER));
+            writer.println("%s.%s(%s);".formatted(OUTPUT_OBJECT_PARAMETER, reversed ? "writeGroupEnd" : "writeGroupStart", GROUP_INDEX_PARAMETER));
         }
 
         createRequiredPropertiesNullCheck(writer);
-        for(var property : objectElement.properties()) {
+        // Unknown fields are written after the properties, so the reversed serializer writes them first
+        if(reversed) {
+            writeUnknownFields(writer);
+        }
+
+        var properties = reversed ? objectElement.properties().reversed() : objectElement.properties();
+        for(var property : properties) {
             switch (property.type()) {
                 case ProtobufPropertyType.CollectionType collectionType -> writeRepeatedSerializer(writer, property.index(), property.name(), getAccessorCall(property.accessor()), collectionType, property.packed(), true, false);
                 case ProtobufPropertyType.MapType mapType -> writeMapSerializer(writer, property.index(), property.name(), getAccessorCall(property.accessor()), mapType, true, false);
+                case ProtobufPropertyType.ArrayType arrayType -> writeArraySerializer(writer, property.index(), property.name(), getAccessorCall(property.accessor()), arrayType, property.packed());
+                case ProtobufPropertyType.LazyType lazyType -> writeLazySerializer(writer, property.index(), property.name(), getAccessorCall(property.accessor()), lazyType);
                 default -> writeNormalSerializer(writer, property.index(), property.name(), getAccessorCall(property.accessor()), property.type(), true, true, false);
             }
         }
 
+        if(!reversed) {
+            writeUnknownFields(writer);
+        }
+
         if(objectElement.isGroup()) {
-            writer.println("%s.writeGroupEnd(%s);".formatted(OUTPUT_OBJECT_PARAMETER, GROUP_INDEX_PARAMETER));
+            writer.println("%s.%s(%s);".formatted(OUTPUT_OBJECT_PARAMETER, reversed ? "writeGroupStart" : "writeGroupEnd", GROUP_INDEX_PARAMETER));
+        }
+    }
+
+    // A top level call installs the cache of the stream, used by the nested messages, and clears it when it's done
+    // The sizes can't outlive the call: the same instance could be mutated and written again to the same stream
+    private void createSizeCacheScope(MethodWriter writer) {
+        try(var ifWriter = writer.printIfStatement("%s.openSizeCache()".formatted(OUTPUT_OBJECT_PARAMETER))) {
+            try(var tryWriter = ifWriter.printTryStatement()) {
+                if(objectElement.isGroup()) {
+                    tryWriter.println("%s(%s, %s, %s);".formatted(METHOD_NAME, GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER, OUTPUT_OBJECT_PARAMETER));
+                }else {
+                    tryWriter.println("%s(%s, %s);".formatted(METHOD_NAME, INPUT_OBJECT_PARAMETER, OUTPUT_OBJECT_PARAMETER));
+                }
+            }
+
+            try(var finallyWriter = ifWriter.printFinallyStatement()) {
+                finallyWriter.println("%s.closeSizeCache();".formatted(OUTPUT_OBJECT_PARAMETER));
+            }
+
+            ifWriter.printReturn();
         }
     }
 
+    private void writeUnknownFields(MethodWriter writer) {
+        objectElement.unknownFieldsElement()
+                .filter(ProtobufUnknownFieldsElement::isRaw)
+                .ifPresent(unknownFieldsElement -> writer.println("%s.writeUnknownFields(%s);".formatted(OUTPUT_OBJECT_PARAMETER, getAccessorCall(unknownFieldsElement.accessor()))));
+    }
+
     private void createRequiredPropertiesNullCheck(MethodWriter writer) {
         objectElement.properties()
                 .stream()
@@ -1,6 +1,7 @@
 package it.auties.protobuf.serialization.generator.method.serialization.object;
 
 import it.auties.protobuf.serialization.generator.method.ProtobufMethodGenerator;
+import it.auties.protobuf.serialization.generator.method.serialization.ProtobufSerializationGenerator;
 import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
 import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter;
 
@@ -9,9 +10,17 @@ import java.util.List;
 public class ProtobufObjectSerializationOverloadGenerator extends ProtobufMethodGenerator<ProtobufObjectElement> {
     private static final String INPUT_OBJECT_PARAMETER = "protoInputObject";
     private static final String GROUP_INDEX_PARAMETER = "protoGroupIndex";
+    private static final String SIZE_CACHE_NAME = "protoSizeCache";
 
+    // Whether the overload should serialize the object in a single pass using a ProtobufReverseOutputStream
+    private final boolean reversed;
     public ProtobufObjectSerializationOverloadGenerator(ProtobufObjectElement element) {
+        this(element, false);
+    }
+
+    public ProtobufObjectSerializationOverloadGenerator(ProtobufObjectElement element, boolean reversed) {
         super(element);
+        this.reversed = reversed;
     }
 
     @Override
@@ -21,12 +30,30 @@ public class ProtobufObjectSerializationOverloadGenerator extends ProtobufMethod
             ifWriter.printReturn("null");
         }
 
+        // No size is needed to allocate a reversed stream
+        if(reversed) {
+            writer.printVariableDeclaration("stream", "ProtobufOutputStream.toReversedBytes()");
+            if(objectElement.isGroup()) {
+                writer.println("%s(%s, %s, stream);".formatted(ProtobufSerializationGenerator.REVERSED_METHOD_NAME, GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER));
+            }else {
+                writer.println("%s(%s, stream);".formatted(ProtobufSerializationGenerator.REVERSED_METHOD_NAME, INPUT_OBJECT_PARAMETER));
+            }
+
+            writer.printReturn("stream.toOutput()");
+            return;
+        }
+
+        // Compute the size of the object once, the sizes of the nested messages are cached and reused by the encoder
+        writer.printVariableDeclaration(SIZE_CACHE_NAME, "new ProtobufSizeCache()");
+
         // Return the result
         if(objectElement.isGroup()) {
-            writer.printVariableDeclaration("stream", "ProtobufOutputStream.toBytes(%s(%s, %s))".formatted(ProtobufObjectSizeGenerator.METHOD_NAME, GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER));
+            writer.printVariableDeclaration("stream", "ProtobufOutputStream.toBytes(%s(%s, %s, %s))".formatted(ProtobufObjectSizeGenerator.METHOD_NAME, GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER, SIZE_CACHE_NAME));
+            writer.println("stream.useSizeCache(%s);".formatted(SIZE_CACHE_NAME));
             writer.println("encode(%s, %s, stream);".formatted(GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER));
         }else {
-            writer.printVariableDeclaration("stream", "ProtobufOutputStream.toBytes(%s(%s))".formatted(ProtobufObjectSizeGenerator.METHOD_NAME, INPUT_OBJECT_PARAMETER));
+            writer.printVariableDeclaration("stream", "ProtobufOutputStream.toBytes(%s(%s, %s))".formatted(ProtobufObjectSizeGenerator.METHOD_NAME, INPUT_OBJECT_PARAMETER, SIZE_CACHE_NAME));
+            writer.println("stream.useSizeCache(%s);".formatted(SIZE_CACHE_NAME));
             writer.println("encode(%s, stream);".formatted(INPUT_OBJECT_PARAMETER));
         }
 
@@ -50,7 +77,7 @@ public class ProtobufObjectSerializationOverloadGenerator extends ProtobufMethod
 
     @Override
     public String name() {
-        return "encode";
+        return reversed ? ProtobufSerializationGenerator.REVERSED_METHOD_NAME : ProtobufSerializationGenerator.METHOD_NAME;
     }
 
     @Override
@@ -2,10 +2,12 @@ package it.auties.protobuf.serialization.generator.method.serialization.object;
 
 import it.auties.protobuf.serialization.generator.method.serialization.ProtobufSizeGenerator;
 import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
+import it.auties.protobuf.serialization.model.object.ProtobufUnknownFieldsElement;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyType;
 import it.auties.protobuf.serialization.model.property.ProtobufPropertyType.NormalType;
 import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter;
 import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter.MethodWriter;
+import it.auties.protobuf.stream.ProtobufSizeCache;
 
 import javax.lang.model.element.Element;
 import java.util.List;
@@ -16,6 +18,7 @@ public class ProtobufObjectSizeGenerator extends ProtobufSizeGenerator<ProtobufO
     private static final String INPUT_OBJECT_PARAMETER = "protoInputObject";
     private static final String OUTPUT_SIZE_NAME = "protoOutputSize";
     private static final String GROUP_INDEX_PARAMETER = "protoGroupIndex";
+    private static final String CACHED_SIZE_NAME = "protoCachedSize";
 
     public ProtobufObjectSizeGenerator(ProtobufObjectElement element) {
         super(element);
@@ -47,6 +50,17 @@ public class ProtobufObjectSizeGenerator extends ProtobufSizeGenerator<ProtobufO
     }
 
     private void writeMessageCalculator(ClassWriter classWriter, MethodWriter methodWriter) {
+        // Groups are not length delimited, so their size is never needed while encoding and doesn't need to be cached
+        var cacheable = !Objects.requireNonNull(objectElement).isGroup();
+        if(cacheable) {
+            try(var ifWriter = methodWriter.printIfStatement("%s != null".formatted(SIZE_CACHE_PARAMETER))) {
+                var cachedSizeName = ifWriter.printVariableDeclaration(CACHED_SIZE_NAME, "%s.get(%s)".formatted(SIZE_CACHE_PARAMETER, INPUT_OBJECT_PARAMETER));
+                try(var cachedWriter = ifWriter.printIfStatement("%s != ProtobufSizeCache.MISSING_SIZE".formatted(cachedSizeName))) {
+                    cachedWriter.printReturn(cachedSizeName);
+                }
+            }
+        }
+
         methodWriter.printVariableDeclaration(OUTPUT_SIZE_NAME,"0");
         if(Objects.requireNonNull(objectElement).isGroup()) {
             methodWriter.println("%s += ProtobufOutputStream.getFieldSize(%s, %s);".formatted(OUTPUT_SIZE_NAME, GROUP_INDEX_PARAMETER, "ProtobufWireType.WIRE_TYPE_START_OBJECT"));
@@ -73,6 +87,21 @@ public class ProtobufObjectSizeGenerator extends ProtobufSizeGenerator<ProtobufO
                         mapType,
                         false
                 );
+                case ProtobufPropertyType.ArrayType arrayType -> writeArraySize(
+                        methodWriter,
+                        property.index(),
+                        property.name(),
+                        getAccessorCall(property.accessor()),
+                        property.packed(),
+                        arrayType
+                );
+                case ProtobufPropertyType.LazyType lazyType -> writeLazySize(
+                        methodWriter,
+                        property.index(),
+                        property.name(),
+                        getAccessorCall(property.accessor()),
+                        lazyType
+                );
                 case NormalType ignored -> writeNormalSize(
                         methodWriter,
                         property
@@ -80,25 +109,39 @@ public class ProtobufObjectSizeGenerator extends ProtobufSizeGenerator<ProtobufO
             }
         }
 
+        objectElement.unknownFieldsElement()
+                .filter(ProtobufUnknownFieldsElement::isRaw)
+                .ifPresent(unknownFieldsElement -> methodWriter.println("%s += ProtobufOutputStream.getUnknownFieldsSize(%s);".formatted(OUTPUT_SIZE_NAME, getAccessorCall(unknownFieldsElement.accessor()))));
+
+        if(cacheable) {
+            try(var ifWriter = methodWriter.printIfStatement("%s != null".formatted(SIZE_CACHE_PARAMETER))) {
+                ifWriter.println("%s.put(%s, %s);".formatted(SIZE_CACHE_PARAMETER, INPUT_OBJECT_PARAMETER, OUTPUT_SIZE_NAME));
+            }
+        }
+
         methodWriter.printReturn(OUTPUT_SIZE_NAME);
     }
 
     @Override
     protected List<String> parametersTypes() {
         var objectType = objectElement.element().getSimpleName().toString();
-        if(objectElement.isGroup()) {
-            return List.of("int", objectType);
-        }else {
+        if(objectElement.isEnum()) {
             return List.of(objectType);
+        }else if(objectElement.isGroup()) {
+            return List.of("int", objectType, ProtobufSizeCache.class.getSimpleName());
+        }else {
+            return List.of(objectType, ProtobufSizeCache.class.getSimpleName());
         }
     }
 
     @Override
     protected List<String> parametersNames() {
-        if(objectElement.isGroup()) {
-            return List.of(GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER);
-        }else {
+        if(objectElement.isEnum()) {
             return List.of(INPUT_OBJECT_PARAMETER);
+        }else if(objectElement.isGroup()) {
+            return List.of(GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER, SIZE_CACHE_PARAMETER);
+        }else {
+            return List.of(INPUT_OBJECT_PARAMETER, SIZE_CACHE_PARAMETER);
         }
     }
 
@@ -0,0 +1,66 @@
+package it.auties.protobuf.serialization.generator.method.serialization.object;
+
+import it.auties.protobuf.serialization.generator.method.ProtobufMethodGenerator;
+import it.auties.protobuf.serialization.generator.method.serialization.ProtobufSizeGenerator;
+import it.auties.protobuf.serialization.model.object.ProtobufObjectElement;
+import it.auties.protobuf.serialization.support.JavaWriter.ClassWriter;
+
+import java.util.List;
+
+// Computes the size of a message or group without memoizing the size of its nested messages
+public class ProtobufObjectSizeOverloadGenerator extends ProtobufMethodGenerator<ProtobufObjectElement> {
+    private static final String INPUT_OBJECT_PARAMETER = "protoInputObject";
+    private static final String GROUP_INDEX_PARAMETER = "protoGroupIndex";
+
+    public ProtobufObjectSizeOverloadGenerator(ProtobufObjectElement element) {
+        super(element);
+    }
+
+    @Override
+    protected void doInstrumentation(ClassWriter classWriter, ClassWriter.MethodWriter writer) {
+        if(objectElement.isGroup()) {
+            writer.printReturn("%s(%s, %s, null)".formatted(ProtobufSizeGenerator.METHOD_NAME, GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER));
+        }else {
+            writer.printReturn("%s(%s, null)".formatted(ProtobufSizeGenerator.METHOD_NAME, INPUT_OBJECT_PARAMETER));
+        }
+    }
+
+    @Override
+    public boolean shouldInstrument() {
+        return !objectElement.isEnum();
+    }
+
+    @Override
+    protected List<String> modifiers() {
+        return List.of("public", "static");
+    }
+
+    @Override
+    protected String returnType() {
+        return "int";
+    }
+
+    @Override
+    public String name() {
+        return ProtobufSizeGenerator.METHOD_NAME;
+    }
+
+    @Override
+    protected List<String> parametersTypes() {
+        var objectType = objectElement.element().getSimpleName().toString();
+        if(objectElement.isGroup()) {
+            return List.of("int", objectType);
+        }else {
+            return List.of(objectType);
+        }
+    }
+
+    @Override
+    protected List<String> parametersNames() {
+        if(objectElement.isGroup()) {
+            return List.of(GROUP_INDEX_PARAMETER, INPUT_OBJECT_PARAMETER);
+        }else {
+            return List.of(INPUT_OBJECT_PARAMETER);
+        }
+    }
+}
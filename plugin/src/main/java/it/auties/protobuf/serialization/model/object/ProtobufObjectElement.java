@@ -10,6 +10,7 @@ import java.util.*;
 public class ProtobufObjectElement {
     private final TypeElement typeElement;
     private final Map<Integer, ProtobufPropertyElement> properties;
+    private final Map<Integer, Element> setters;
     private final List<ProtobufBuilderElement> builders;
     private final Map<Integer, String> constants;
     private final ProtobufEnumMetadata enumMetadata;
@@ -27,6 +28,7 @@ public class ProtobufObjectElement {
         this.reservedIndexes = getReservedIndexes();
         this.builders = new ArrayList<>();
         this.properties = new LinkedHashMap<>();
+        this.setters = new HashMap<>();
         this.constants = new LinkedHashMap<>();
         this.group = group;
     }
@@ -141,6 +143,20 @@ public class ProtobufObjectElement {
         return group;
     }
 
+    public boolean isMutable() {
+        var message = typeElement.getAnnotation(ProtobufMessage.class);
+        return message != null && message.mutable();
+    }
+
+    // The setter is either a method that takes the value or a field that can be assigned
+    public void addSetter(int index, Element setter) {
+        setters.put(index, setter);
+    }
+
+    public Optional<Element> setter(int index) {
+        return Optional.ofNullable(setters.get(index));
+    }
+
     public Set<String> reservedNames() {
         return reservedNames;
     }
@@ -1,12 +1,18 @@
 package it.auties.protobuf.serialization.model.object;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.type.TypeMirror;
 
+// The setter is null if the type is ProtobufUnknownFieldSet, which is filled directly with the encoded fields
+// In that case, the accessor is used by the serializer to write them back
 public record ProtobufUnknownFieldsElement(
         TypeMirror type,
         String defaultValue,
-        ExecutableElement setter
+        ExecutableElement setter,
+        Element accessor
 ) {
-
+    public boolean isRaw() {
+        return setter == null;
+    }
 }
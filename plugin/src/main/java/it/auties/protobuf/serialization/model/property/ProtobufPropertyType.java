@@ -250,4 +250,57 @@ public sealed interface ProtobufPropertyType {
             return ProtobufType.MAP;
         }
     }
-}
+
+    // A repeated property backed by a primitive array, like int[] or double[]
+    // The values are read and written as they are, so converters are not supported
+    record ArrayType(TypeMirror descriptorElementType, ProtobufType protobufType, String descriptorDefaultValue, List<TypeElement> mixins) implements ProtobufPropertyType {
+        @Override
+        public TypeMirror accessorType() {
+            return descriptorElementType;
+        }
+
+        @Override
+        public List<ProtobufConverterElement> converters() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<TypeElement> mixins() {
+            return Collections.unmodifiableList(mixins);
+        }
+
+        @Override
+        public void addConverter(ProtobufConverterElement element) {
+            throw new IllegalArgumentException("Internal bug: primitive arrays don't support converters");
+        }
+    }
+
+    // A message property wrapped in a ProtobufLazy, value describes the message
+    // The message is decoded on first access, so converters are not supported
+    record LazyType(TypeMirror descriptorElementType, NormalType value, String descriptorDefaultValue, List<TypeElement> mixins) implements ProtobufPropertyType {
+        @Override
+        public TypeMirror accessorType() {
+            return descriptorElementType;
+        }
+
+        @Override
+        public ProtobufType protobufType() {
+            return value.protobufType();
+        }
+
+        @Override
+        public List<ProtobufConverterElement> converters() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<TypeElement> mixins() {
+            return Collections.unmodifiableList(mixins);
+        }
+
+        @Override
+        public void addConverter(ProtobufConverterElement element) {
+            throw new IllegalArgumentException("Internal bug: lazy properties don't support converters");
+        }
+    }
+}
\ No newline at end of file
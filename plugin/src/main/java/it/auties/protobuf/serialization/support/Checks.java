@@ -5,6 +5,7 @@ import it.auties.protobuf.model.ProtobufType;
 
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import java.lang.annotation.Annotation;
 import java.util.*;
@@ -346,7 +347,7 @@ public class Checks {
 
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean isValidPackedProperty(Element variableElement, ProtobufProperty propertyAnnotation) {
-        if(!propertyAnnotation.packed() || types.isAssignable(variableElement.asType(), Collection.class)) {
+        if(!propertyAnnotation.packed() || types.isAssignable(variableElement.asType(), Collection.class) || variableElement.asType() instanceof ArrayType) {
             return true;
         }
 
@@ -103,6 +103,21 @@ public abstract class JavaWriter extends PrintWriter {
             println("return;");
         }
 
+        public ConditionalStatementWriter printTryStatement() {
+            println("try {");
+            return new ConditionalStatementWriter(this);
+        }
+
+        public ConditionalStatementWriter printCatchStatement(String exceptionType, String exceptionName) {
+            printf("catch (%s %s) {%n", exceptionType, exceptionName);
+            return new ConditionalStatementWriter(this);
+        }
+
+        public ConditionalStatementWriter printFinallyStatement() {
+            println("finally {");
+            return new ConditionalStatementWriter(this);
+        }
+
         public ForWriter printForStatement(String initializer, String condition, String body) {
             printf("for (%s; %s; %s) { %n", initializer, condition, body);
             return new ForWriter(this);
@@ -0,0 +1,13 @@
+package it.auties.proto.features.enumeration.sparse;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufType;
+
+@ProtobufMessage
+public record SparseEnumMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.ENUM)
+        SparseEnumType type
+) {
+
+}
@@ -0,0 +1,29 @@
+package it.auties.proto.features.enumeration.sparse;
+
+import it.auties.proto.features.enumeration.embedded.EnumType;
+import it.auties.proto.features.enumeration.embedded.EnumTypeSpec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SparseEnumTest {
+    @Test
+    public void testSparse() {
+        for(var type : SparseEnumType.values()) {
+            var someMessage = new SparseEnumMessage(type);
+            var encoded = SparseEnumMessageSpec.encode(someMessage);
+            var decoded = SparseEnumMessageSpec.decode(encoded);
+            Assertions.assertEquals(type, decoded.type());
+        }
+
+        Assertions.assertNull(SparseEnumTypeSpec.decode(2));
+        Assertions.assertEquals(SparseEnumType.FIRST, SparseEnumTypeSpec.decode(2, SparseEnumType.FIRST));
+    }
+
+    @Test
+    public void testDense() {
+        Assertions.assertEquals(EnumType.THIRD, EnumTypeSpec.decode(10));
+        Assertions.assertNull(EnumTypeSpec.decode(5));
+        Assertions.assertNull(EnumTypeSpec.decode(-1));
+        Assertions.assertNull(EnumTypeSpec.decode(11));
+    }
+}
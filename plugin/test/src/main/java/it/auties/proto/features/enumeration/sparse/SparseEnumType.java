@@ -0,0 +1,21 @@
+package it.auties.proto.features.enumeration.sparse;
+
+import it.auties.protobuf.annotation.ProtobufEnum;
+import it.auties.protobuf.annotation.ProtobufEnumIndex;
+
+@ProtobufEnum
+public enum SparseEnumType {
+    FIRST(1),
+    MIDDLE(500),
+    FAR(100000);
+
+    final int index;
+
+    SparseEnumType(@ProtobufEnumIndex int index) {
+        this.index = index;
+    }
+
+    public int index() {
+        return index;
+    }
+}
@@ -0,0 +1,24 @@
+package it.auties.proto.features.message.array;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+
+import static it.auties.protobuf.model.ProtobufType.*;
+
+@ProtobufMessage
+public record ArrayMessage(
+        @ProtobufProperty(index = 1, type = INT32, packed = true)
+        int[] ints,
+        @ProtobufProperty(index = 2, type = UINT64, packed = true)
+        long[] longs,
+        @ProtobufProperty(index = 3, type = FLOAT, packed = true)
+        float[] floats,
+        @ProtobufProperty(index = 4, type = DOUBLE, packed = true)
+        double[] doubles,
+        @ProtobufProperty(index = 5, type = BOOL, packed = true)
+        boolean[] booleans,
+        @ProtobufProperty(index = 6, type = FIXED32)
+        int[] unpacked
+) {
+
+}
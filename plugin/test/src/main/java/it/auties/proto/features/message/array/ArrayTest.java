@@ -0,0 +1,71 @@
+package it.auties.proto.features.message.array;
+
+import it.auties.protobuf.exception.ProtobufDeserializationException;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+
+public class ArrayTest {
+    @Test
+    public void testArrays() {
+        var message = new ArrayMessage(
+                new int[]{1, 300, -5},
+                new long[]{0, Long.MAX_VALUE, 70000},
+                new float[]{1.5f, -2f},
+                new double[]{Math.PI},
+                new boolean[]{true, false, true},
+                new int[]{7, 8}
+        );
+        var encoded = ArrayMessageSpec.encode(message);
+        Assertions.assertEquals(ArrayMessageSpec.sizeOf(message), encoded.length);
+        Assertions.assertArrayEquals(encoded, ArrayMessageSpec.encodeReversed(message));
+        var decoded = ArrayMessageSpec.decode(encoded);
+        Assertions.assertArrayEquals(message.ints(), decoded.ints());
+        Assertions.assertArrayEquals(message.longs(), decoded.longs());
+        Assertions.assertArrayEquals(message.floats(), decoded.floats());
+        Assertions.assertArrayEquals(message.doubles(), decoded.doubles());
+        Assertions.assertArrayEquals(message.booleans(), decoded.booleans());
+        Assertions.assertArrayEquals(message.unpacked(), decoded.unpacked());
+    }
+
+    @Test
+    public void testEmpty() {
+        var decoded = ArrayMessageSpec.decode(new byte[0]);
+        Assertions.assertEquals(0, decoded.ints().length);
+        Assertions.assertEquals(0, decoded.booleans().length);
+        Assertions.assertEquals(0, decoded.unpacked().length);
+    }
+
+    // Packed and unpacked encodings of the same field must be merged
+    @Test
+    public void testMixedEncoding() {
+        var packed = ArrayMessageSpec.encode(new ArrayMessage(new int[]{1, 2}, null, null, null, null, null));
+        var unpacked = new byte[]{8, 3};
+        var input = new byte[packed.length + unpacked.length];
+        System.arraycopy(packed, 0, input, 0, packed.length);
+        System.arraycopy(unpacked, 0, input, packed.length, unpacked.length);
+        var decoded = ArrayMessageSpec.decode(ProtobufInputStream.fromBytes(input, 0, input.length));
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, decoded.ints());
+    }
+
+    // Every packed field claims a length close to Integer.MAX_VALUE, which must be rejected before the array is allocated
+    @Test
+    public void testOversizedLength() {
+        for(var tag = 1; tag <= 6; tag++) {
+            var encoded = new byte[]{(byte) (tag << 3 | 2), (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+            Assertions.assertThrows(ProtobufDeserializationException.class, () -> ArrayMessageSpec.decode(encoded));
+            Assertions.assertThrows(ProtobufDeserializationException.class, () -> ArrayMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded))));
+        }
+    }
+
+    // The length of a packed field of fixed values must be a multiple of their size
+    @Test
+    public void testMisalignedLength() {
+        var floats = new byte[]{0x1A, 3, 1, 2, 3};
+        Assertions.assertThrows(ProtobufDeserializationException.class, () -> ArrayMessageSpec.decode(floats));
+        var doubles = new byte[]{0x22, 4, 1, 2, 3, 4};
+        Assertions.assertThrows(ProtobufDeserializationException.class, () -> ArrayMessageSpec.decode(doubles));
+    }
+}
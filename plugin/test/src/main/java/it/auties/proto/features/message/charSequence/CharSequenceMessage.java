@@ -0,0 +1,18 @@
+package it.auties.proto.features.message.charSequence;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+
+import java.util.List;
+
+import static it.auties.protobuf.model.ProtobufType.STRING;
+
+@ProtobufMessage
+public record CharSequenceMessage(
+        @ProtobufProperty(index = 1, type = STRING)
+        CharSequence value,
+        @ProtobufProperty(index = 2, type = STRING)
+        List<CharSequence> values
+) {
+
+}
@@ -0,0 +1,39 @@
+package it.auties.proto.features.message.charSequence;
+
+import it.auties.protobuf.model.ProtobufString;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CharSequence properties are assigned the ProtobufString read from the stream, without converting it to a String
+public class CharSequenceTest {
+    @Test
+    public void testLazy() {
+        var message = new CharSequenceMessage("text", new ArrayList<>(List.of("first", "日本語")));
+        var encoded = CharSequenceMessageSpec.encode(message);
+        Assertions.assertArrayEquals(encoded, CharSequenceMessageSpec.encodeReversed(message));
+        var decoded = CharSequenceMessageSpec.decode(encoded);
+        Assertions.assertInstanceOf(ProtobufString.class, decoded.value());
+        Assertions.assertEquals(ProtobufString.wrap("text"), decoded.value());
+        Assertions.assertEquals("text", decoded.value().toString());
+        Assertions.assertEquals(2, decoded.values().size());
+        for(var value : decoded.values()) {
+            Assertions.assertInstanceOf(ProtobufString.class, value);
+        }
+        Assertions.assertEquals("日本語", decoded.values().get(1).toString());
+        Assertions.assertArrayEquals(encoded, CharSequenceMessageSpec.encode(decoded));
+        Assertions.assertEquals(encoded.length, CharSequenceMessageSpec.sizeOf(decoded));
+    }
+
+    // Any CharSequence can be serialized, not only the ones produced by the deserializer
+    @Test
+    public void testCharSequence() {
+        var builder = new StringBuilder("built");
+        var encoded = CharSequenceMessageSpec.encode(new CharSequenceMessage(builder, new ArrayList<>(List.of(builder))));
+        var expected = CharSequenceMessageSpec.encode(new CharSequenceMessage("built", new ArrayList<>(List.of("built"))));
+        Assertions.assertArrayEquals(expected, encoded);
+        Assertions.assertNull(CharSequenceMessageSpec.decode(new byte[0]).value());
+    }
+}
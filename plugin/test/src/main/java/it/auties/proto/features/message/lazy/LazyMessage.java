@@ -0,0 +1,17 @@
+package it.auties.proto.features.message.lazy;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufLazy;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufType;
+
+@ProtobufMessage
+public record LazyMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.STRING)
+        ProtobufString header,
+        @ProtobufProperty(index = 2, type = ProtobufType.MESSAGE)
+        ProtobufLazy<LazyChildMessage> child
+) {
+
+}
@@ -0,0 +1,73 @@
+package it.auties.proto.features.message.lazy;
+
+import it.auties.protobuf.model.ProtobufLazy;
+import it.auties.protobuf.model.ProtobufString;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LazyTest {
+    @Test
+    public void testUntouched() {
+        var message = new LazyMessage(ProtobufString.wrap("route"), ProtobufLazy.of(new LazyChildMessage(ProtobufString.wrap("payload"), 17)));
+        var encoded = LazyMessageSpec.encode(message);
+        var decoded = LazyMessageSpec.decode(encoded);
+        Assertions.assertFalse(decoded.child().isDecoded());
+        Assertions.assertEquals(encoded.length, LazyMessageSpec.sizeOf(decoded));
+        Assertions.assertArrayEquals(encoded, LazyMessageSpec.encode(decoded));
+        Assertions.assertArrayEquals(encoded, LazyMessageSpec.encodeReversed(decoded));
+        Assertions.assertFalse(decoded.child().isDecoded());
+    }
+
+    @Test
+    public void testDecoded() {
+        var child = new LazyChildMessage(ProtobufString.wrap("payload"), 17);
+        var message = new LazyMessage(ProtobufString.wrap("route"), ProtobufLazy.of(child));
+        var encoded = LazyMessageSpec.encode(message);
+        Assertions.assertArrayEquals(encoded, LazyMessageSpec.encodeReversed(message));
+        var decoded = LazyMessageSpec.decode(encoded);
+        Assertions.assertEquals(child, decoded.child().get());
+        Assertions.assertTrue(decoded.child().isDecoded());
+        Assertions.assertNull(decoded.child().encoded());
+        Assertions.assertArrayEquals(encoded, LazyMessageSpec.encode(decoded));
+    }
+
+    // Threads that race on the first access never block, and they all get the same instance
+    @Test
+    public void testConcurrent() throws Exception {
+        var message = new LazyMessage(ProtobufString.wrap("route"), ProtobufLazy.of(new LazyChildMessage(ProtobufString.wrap("payload"), 17)));
+        var encoded = LazyMessageSpec.encode(message);
+        for(var round = 0; round < 16; round++) {
+            var decoded = LazyMessageSpec.decode(encoded);
+            try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var results = new ArrayList<Future<LazyChildMessage>>();
+                for(var i = 0; i < 8; i++) {
+                    results.add(executor.submit(() -> decoded.child().get()));
+                }
+
+                var expected = decoded.child().get();
+                for(var result : results) {
+                    Assertions.assertSame(expected, result.get());
+                }
+            }
+        }
+    }
+
+    // Decoding a lazy string backed by a buffer must not move the position of the buffer
+    @Test
+    public void testBufferString() {
+        var bytes = "àèìòù".getBytes(StandardCharsets.UTF_8);
+        var value = ProtobufString.lazy(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+        var hash = value.hashCode();
+        Assertions.assertEquals("àèìòù", value.toString());
+        Assertions.assertSame(value.toString(), value.toString());
+        Assertions.assertEquals(bytes.length, value.encodedLength());
+        Assertions.assertEquals(hash, ProtobufString.lazy(bytes, 0, bytes.length).hashCode());
+        Assertions.assertArrayEquals(bytes, ProtobufString.wrap("àèìòù").getBytes());
+    }
+}
@@ -0,0 +1,27 @@
+package it.auties.proto.features.message.mutable;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufType;
+
+
+@ProtobufMessage(mutable = true)
+public final class MutableChildMessage {
+    @ProtobufProperty(index = 1, type = ProtobufType.INT64)
+    long value;
+
+    public MutableChildMessage(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MutableChildMessage that
+                && value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(value);
+    }
+}
@@ -0,0 +1,77 @@
+package it.auties.proto.features.message.mutable;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufType;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+@ProtobufMessage(mutable = true)
+public final class MutableMessage {
+    @ProtobufProperty(index = 1, type = ProtobufType.STRING)
+    private ProtobufString name;
+
+    @ProtobufProperty(index = 2, type = ProtobufType.INT32)
+    private int count;
+
+    @ProtobufProperty(index = 3, type = ProtobufType.INT32)
+    private ArrayList<Integer> values;
+
+    @ProtobufProperty(index = 4, type = ProtobufType.MESSAGE)
+    private MutableChildMessage child;
+
+    public MutableMessage(ProtobufString name, int count, ArrayList<Integer> values, MutableChildMessage child) {
+        this.name = name;
+        this.count = count;
+        this.values = values;
+        this.child = child;
+    }
+
+    public ProtobufString name() {
+        return name;
+    }
+
+    public void setName(ProtobufString name) {
+        this.name = name;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public ArrayList<Integer> values() {
+        return values;
+    }
+
+    public void setValues(ArrayList<Integer> values) {
+        this.values = values;
+    }
+
+    public MutableChildMessage child() {
+        return child;
+    }
+
+    public void setChild(MutableChildMessage child) {
+        this.child = child;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MutableMessage that
+                && Objects.equals(name, that.name)
+                && count == that.count
+                && Objects.equals(values, that.values)
+                && Objects.equals(child, that.child);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, count, values, child);
+    }
+}
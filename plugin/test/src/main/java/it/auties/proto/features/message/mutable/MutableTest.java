@@ -0,0 +1,59 @@
+package it.auties.proto.features.message.mutable;
+
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MutableTest {
+    @Test
+    public void testDecodeInto() {
+        var message = new MutableMessage(ProtobufString.wrap("first"), 1, new ArrayList<>(List.of(1, 2, 3)), new MutableChildMessage(10));
+        var target = new MutableMessage(null, 0, new ArrayList<>(), null);
+        var decoded = MutableMessageSpec.decodeInto(target, ProtobufInputStream.fromBytes(MutableMessageSpec.encode(message)));
+        Assertions.assertSame(target, decoded);
+        Assertions.assertEquals(message, decoded);
+    }
+
+    @Test
+    public void testReuse() {
+        var target = new MutableMessage(null, 0, new ArrayList<>(), null);
+        var first = new MutableMessage(ProtobufString.wrap("first"), 1, new ArrayList<>(List.of(1, 2, 3)), new MutableChildMessage(10));
+        MutableMessageSpec.decodeInto(target, ProtobufInputStream.fromBytes(MutableMessageSpec.encode(first)));
+        var values = target.values();
+        var child = target.child();
+
+        // The collection and the nested message are refilled, the properties that are missing go back to their default value
+        var second = new MutableMessage(null, 0, new ArrayList<>(List.of(4)), new MutableChildMessage(20));
+        MutableMessageSpec.decodeInto(target, ProtobufInputStream.fromBytes(MutableMessageSpec.encode(second)));
+        Assertions.assertEquals(second, target);
+        Assertions.assertSame(values, target.values());
+        Assertions.assertSame(child, target.child());
+
+        var third = new MutableMessage(ProtobufString.wrap("third"), 3, new ArrayList<>(), null);
+        MutableMessageSpec.decodeInto(target, ProtobufInputStream.fromBytes(MutableMessageSpec.encode(third)));
+        Assertions.assertEquals(third, target);
+    }
+
+    @Test
+    public void testUnmodifiableContainer() {
+        var message = new MutableViewMessage(List.of(1, 2, 3));
+        var target = new MutableViewMessage(new ArrayList<>(List.of(4)));
+        MutableViewMessageSpec.decodeInto(target, ProtobufInputStream.fromBytes(MutableViewMessageSpec.encode(message)));
+        Assertions.assertEquals(message, target);
+
+        var empty = new MutableViewMessage(null);
+        MutableViewMessageSpec.decodeInto(empty, ProtobufInputStream.fromBytes(MutableViewMessageSpec.encode(message)));
+        Assertions.assertEquals(message, empty);
+    }
+
+    @Test
+    public void testNullTarget() {
+        var message = new MutableMessage(ProtobufString.wrap("message"), 1, new ArrayList<>(List.of(1)), null);
+        var decoded = MutableMessageSpec.decodeInto(null, ProtobufInputStream.fromBytes(MutableMessageSpec.encode(message)));
+        Assertions.assertEquals(message, decoded);
+    }
+}
@@ -0,0 +1,39 @@
+package it.auties.proto.features.message.mutable;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// The accessor exposes an unmodifiable view, so decodeInto can't clear the previous values
+@ProtobufMessage(mutable = true)
+public final class MutableViewMessage {
+    @ProtobufProperty(index = 1, type = ProtobufType.INT32)
+    private List<Integer> values;
+
+    public MutableViewMessage(List<Integer> values) {
+        this.values = values;
+    }
+
+    public List<Integer> values() {
+        return values == null ? List.of() : Collections.unmodifiableList(values);
+    }
+
+    public void setValues(List<Integer> values) {
+        this.values = values;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MutableViewMessage that
+                && Objects.equals(values(), that.values());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(values());
+    }
+}
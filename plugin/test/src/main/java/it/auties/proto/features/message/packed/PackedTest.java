@@ -1,10 +1,18 @@
 package it.auties.proto.features.message.packed;
 
+import it.auties.proto.features.message.array.ArrayMessage;
+import it.auties.proto.features.message.array.ArrayMessageSpec;
+import it.auties.protobuf.exception.ProtobufDeserializationException;
+import it.auties.protobuf.stream.ProtobufInputStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
 
 public class PackedTest {
     @Test
@@ -14,4 +22,61 @@ public class PackedTest {
         var decoded = PackedMessageSpec.decode(encoded);
         Assertions.assertEquals(someMessage.content(), decoded.content());
     }
+
+    // Runs of single byte values, values of every length and negative values, which take ten bytes, exercise all the paths of the bulk decoder
+    @Test
+    public void testVarIntLengths() {
+        var random = new Random(42);
+        var ints = new ArrayList<Integer>();
+        var longs = new long[512];
+        for(var i = 0; i < longs.length; i++) {
+            var shift = random.nextInt(64);
+            var value = random.nextLong() >>> shift;
+            longs[i] = i % 7 == 0 ? -value : (i % 3 == 0 ? value & 0x7F : value);
+            ints.add(i % 5 == 0 ? (int) -value : (int) (value & 0x7FFFFFFF) >>> random.nextInt(31));
+        }
+
+        var packedMessage = new PackedMessage(ints);
+        var packedEncoded = PackedMessageSpec.encode(packedMessage);
+        var arrayMessage = new ArrayMessage(new int[0], longs, new float[0], new double[0], new boolean[0], new int[0]);
+        var arrayEncoded = ArrayMessageSpec.encode(arrayMessage);
+        for(var input : inputs()) {
+            Assertions.assertEquals(ints, PackedMessageSpec.decode(input.apply(packedEncoded)).content());
+            Assertions.assertArrayEquals(longs, ArrayMessageSpec.decode(input.apply(arrayEncoded)).longs());
+        }
+    }
+
+    @Test
+    public void testTruncatedVarInt() {
+        // A packed field of two bytes whose last var int doesn't end
+        var encoded = new byte[]{0x0A, 2, 1, (byte) 0x80, 1};
+        Assertions.assertThrows(RuntimeException.class, () -> PackedMessageSpec.decode(encoded));
+    }
+
+    // A packed field whose length is close to Integer.MAX_VALUE, in an input of six bytes
+    // The length must be rejected before the array that holds the decoded values is allocated
+    @Test
+    public void testOversizedLength() {
+        var encoded = new byte[]{0x0A, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        for(var input : inputs()) {
+            Assertions.assertThrows(ProtobufDeserializationException.class, () -> PackedMessageSpec.decode(input.apply(encoded)));
+        }
+    }
+
+    private static List<Function<byte[], ProtobufInputStream>> inputs() {
+        return List.of(
+                ProtobufInputStream::fromBytes,
+                encoded -> ProtobufInputStream.fromBytes(withPadding(encoded), 3, encoded.length),
+                encoded -> ProtobufInputStream.fromBuffer(ByteBuffer.wrap(encoded)),
+                encoded -> ProtobufInputStream.fromBuffer(ByteBuffer.allocateDirect(encoded.length).put(encoded).flip()),
+                encoded -> ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded)),
+                encoded -> ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), 16)
+        );
+    }
+
+    private static byte[] withPadding(byte[] encoded) {
+        var result = new byte[encoded.length + 6];
+        System.arraycopy(encoded, 0, result, 3, encoded.length);
+        return result;
+    }
 }
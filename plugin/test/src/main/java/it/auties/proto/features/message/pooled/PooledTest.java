@@ -0,0 +1,59 @@
+package it.auties.proto.features.message.pooled;
+
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufGrowableOutputStream;
+import it.auties.protobuf.stream.ProtobufOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+public class PooledTest {
+    @Test
+    public void testHeap() {
+        testSlices(ProtobufOutputStream.toGrowableBuffer(16));
+    }
+
+    @Test
+    public void testDirect() {
+        testSlices(ProtobufOutputStream.toGrowableDirectBuffer(16));
+    }
+
+    @Test
+    public void testThreadLocal() {
+        var stream = ProtobufOutputStream.toThreadLocalBuffer();
+        testSlices(stream);
+        Assertions.assertSame(stream, ProtobufOutputStream.toThreadLocalBuffer());
+    }
+
+    private void testSlices(ProtobufGrowableOutputStream stream) {
+        for(var round = 0; round < 2; round++) {
+            stream.reset();
+            var messages = new ArrayList<NestedMessage>();
+            var slices = new ArrayList<ByteBuffer>();
+            for(var i = 0; i < 32; i++) {
+                var message = new NestedMessage(ProtobufString.wrap("message" + i), new NestedMessage(ProtobufString.wrap("child" + i), null));
+                var start = stream.size();
+                NestedMessageSpec.encode(message, stream);
+                messages.add(message);
+                slices.add(stream.slice(start, stream.size() - start));
+            }
+
+            for(var i = 0; i < messages.size(); i++) {
+                var expected = messages.get(i);
+                var encoded = toArray(slices.get(i));
+                Assertions.assertArrayEquals(NestedMessageSpec.encode(expected), encoded);
+                Assertions.assertEquals(expected, NestedMessageSpec.decode(encoded));
+            }
+        }
+    }
+
+    private byte[] toArray(ByteBuffer buffer) {
+        var result = new byte[buffer.remaining()];
+        buffer.get(buffer.position(), result);
+        return result;
+    }
+}
@@ -0,0 +1,23 @@
+package it.auties.proto.features.message.projection;
+
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufType;
+
+import java.util.List;
+
+@ProtobufMessage
+public record ProjectedMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.STRING, required = true)
+        ProtobufString header,
+        @ProtobufProperty(index = 2, type = ProtobufType.MESSAGE)
+        NestedMessage body,
+        @ProtobufProperty(index = 3, type = ProtobufType.INT32)
+        List<Integer> values,
+        @ProtobufProperty(index = 100, type = ProtobufType.UINT64)
+        long timestamp
+) {
+
+}
@@ -0,0 +1,49 @@
+package it.auties.proto.features.message.projection;
+
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.protobuf.model.ProtobufProjection;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProjectionTest {
+    private static final ProjectedMessage MESSAGE = new ProjectedMessage(
+            ProtobufString.wrap("route"),
+            new NestedMessage(ProtobufString.wrap("payload"), null),
+            new ArrayList<>(List.of(1, 2, 3)),
+            123456789L
+    );
+
+    @Test
+    public void testProjection() {
+        var encoded = ProjectedMessageSpec.encode(MESSAGE);
+        var decoded = ProjectedMessageSpec.decode(ProtobufInputStream.fromBytes(encoded), ProtobufProjection.of(1, 100));
+        Assertions.assertEquals(MESSAGE.header(), decoded.header());
+        Assertions.assertEquals(MESSAGE.timestamp(), decoded.timestamp());
+        Assertions.assertNull(decoded.body());
+        Assertions.assertTrue(decoded.values().isEmpty());
+    }
+
+    @Test
+    public void testRequiredOutsideProjection() {
+        // Only field 2, a nested message whose name is "payload"
+        var encoded = new byte[]{0x12, 9, 0x0A, 7, 'p', 'a', 'y', 'l', 'o', 'a', 'd'};
+        var decoded = ProjectedMessageSpec.decode(ProtobufInputStream.fromBytes(encoded), ProtobufProjection.of(2));
+        Assertions.assertEquals(MESSAGE.body().name(), decoded.body().name());
+        Assertions.assertThrows(NullPointerException.class, () -> ProjectedMessageSpec.decode(encoded));
+    }
+
+    @Test
+    public void testContains() {
+        var projection = ProtobufProjection.of(63, 64, 1000);
+        Assertions.assertTrue(projection.contains(63));
+        Assertions.assertTrue(projection.contains(64));
+        Assertions.assertTrue(projection.contains(1000));
+        Assertions.assertFalse(projection.contains(1));
+        Assertions.assertFalse(projection.contains(999));
+    }
+}
@@ -0,0 +1,83 @@
+package it.auties.proto.features.message.reversed;
+
+import it.auties.proto.features.group.convertion.nested.NestedConvertedGroupRecord;
+import it.auties.proto.features.group.convertion.nested.NestedConvertedMessageRecord;
+import it.auties.proto.features.group.convertion.nested.NestedConvertedMessageRecordSpec;
+import it.auties.proto.features.group.nested.MessageRecord;
+import it.auties.proto.features.group.nested.MessageRecordSpec;
+import it.auties.proto.features.group.nested.NestedGroupRecord;
+import it.auties.proto.features.message.map.MapMessage;
+import it.auties.proto.features.message.map.MapMessageSpec;
+import it.auties.proto.features.message.packed.PackedMessage;
+import it.auties.proto.features.message.packed.PackedMessageSpec;
+import it.auties.proto.features.message.repeated.ModernBetaRepeatedMessage;
+import it.auties.proto.features.message.repeated.ModernBetaRepeatedMessageSpec;
+import it.auties.proto.features.message.repeated.ModernRepeatedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReversedTest {
+    @Test
+    public void testNested() {
+        NestedMessage message = null;
+        for(var i = 0; i < 8; i++) {
+            message = new NestedMessage(ProtobufString.wrap("level" + i), message);
+        }
+
+        Assertions.assertArrayEquals(NestedMessageSpec.encode(message), NestedMessageSpec.encodeReversed(message));
+    }
+
+    @Test
+    public void testRepeated() {
+        var message = new ModernBetaRepeatedMessage(new ArrayList<>(List.of(1, 2, 3)), new ArrayList<>(List.of(new ModernRepeatedMessage(new ArrayList<>(List.of(1, 2, 3))), new ModernRepeatedMessage(new ArrayList<>(List.of(4, 5))))));
+        Assertions.assertArrayEquals(ModernBetaRepeatedMessageSpec.encode(message), ModernBetaRepeatedMessageSpec.encodeReversed(message));
+    }
+
+    @Test
+    public void testPacked() {
+        var message = new PackedMessage(new ArrayList<>(List.of(1, 300, 70000)));
+        Assertions.assertArrayEquals(PackedMessageSpec.encode(message), PackedMessageSpec.encodeReversed(message));
+    }
+
+    @Test
+    public void testMap() {
+        var message = new MapMessage(Map.of(ProtobufString.wrap("abc"), 1));
+        Assertions.assertArrayEquals(MapMessageSpec.encode(message), MapMessageSpec.encodeReversed(message));
+    }
+
+    @Test
+    public void testOrderedMap() {
+        var content = new LinkedHashMap<ProtobufString, Integer>();
+        for(var i = 0; i < 8; i++) {
+            content.put(ProtobufString.wrap("key" + i), i * 100);
+        }
+
+        var message = new MapMessage(content);
+        Assertions.assertArrayEquals(MapMessageSpec.encode(message), MapMessageSpec.encodeReversed(message));
+    }
+
+    @Test
+    public void testGroup() {
+        var nestedRecord = new NestedGroupRecord(ProtobufString.wrap("Nested"), null);
+        var message = new MessageRecord(new NestedGroupRecord(ProtobufString.wrap("Up"), nestedRecord));
+        Assertions.assertArrayEquals(MessageRecordSpec.encode(message), MessageRecordSpec.encodeReversed(message));
+    }
+
+    @Test
+    public void testRawGroup() {
+        var child = new NestedConvertedGroupRecord(ProtobufString.wrap("Hello World"), 123, null);
+        var message = new NestedConvertedMessageRecord(new NestedConvertedGroupRecord(ProtobufString.wrap("Hello World"), 123, child));
+        Assertions.assertArrayEquals(NestedConvertedMessageRecordSpec.encode(message), NestedConvertedMessageRecordSpec.encodeReversed(message));
+        var decoded = NestedConvertedMessageRecordSpec.decode(NestedConvertedMessageRecordSpec.encodeReversed(message));
+        Assertions.assertEquals(message.record().string(), decoded.record().string());
+        Assertions.assertEquals(message.record().number(), decoded.record().number());
+    }
+}
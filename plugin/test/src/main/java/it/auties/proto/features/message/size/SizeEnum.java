@@ -0,0 +1,16 @@
+package it.auties.proto.features.message.size;
+
+import it.auties.protobuf.annotation.ProtobufEnum;
+import it.auties.protobuf.annotation.ProtobufEnumIndex;
+
+@ProtobufEnum
+public enum SizeEnum {
+    ZERO(0),
+    LARGE(300000);
+
+    final int index;
+
+    SizeEnum(@ProtobufEnumIndex int index) {
+        this.index = index;
+    }
+}
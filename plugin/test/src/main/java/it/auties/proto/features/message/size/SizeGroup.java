@@ -0,0 +1,13 @@
+package it.auties.proto.features.message.size;
+
+import it.auties.protobuf.annotation.ProtobufGroup;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufType;
+
+@ProtobufGroup
+public record SizeGroup(
+        @ProtobufProperty(index = 1, type = ProtobufType.INT64)
+        long value
+) {
+
+}
@@ -0,0 +1,82 @@
+package it.auties.proto.features.message.size;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufString;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static it.auties.protobuf.model.ProtobufType.*;
+
+// A property for every type, and a packed property for every type that can be packed
+@ProtobufMessage
+public record SizeMessage(
+        @ProtobufProperty(index = 1, type = FLOAT)
+        Float _float,
+        @ProtobufProperty(index = 2, type = DOUBLE)
+        Double _double,
+        @ProtobufProperty(index = 3, type = BOOL)
+        Boolean bool,
+        @ProtobufProperty(index = 4, type = STRING)
+        ProtobufString string,
+        @ProtobufProperty(index = 5, type = BYTES)
+        ByteBuffer bytes,
+        @ProtobufProperty(index = 6, type = INT32)
+        Integer int32,
+        @ProtobufProperty(index = 7, type = SINT32)
+        Integer sint32,
+        @ProtobufProperty(index = 8, type = UINT32)
+        Integer uint32,
+        @ProtobufProperty(index = 9, type = FIXED32)
+        Integer fixed32,
+        @ProtobufProperty(index = 10, type = SFIXED32)
+        Integer sfixed32,
+        @ProtobufProperty(index = 11, type = INT64)
+        Long int64,
+        @ProtobufProperty(index = 12, type = SINT64)
+        Long sint64,
+        @ProtobufProperty(index = 13, type = UINT64)
+        Long uint64,
+        @ProtobufProperty(index = 14, type = FIXED64)
+        Long fixed64,
+        @ProtobufProperty(index = 15, type = SFIXED64)
+        Long sfixed64,
+        @ProtobufProperty(index = 16, type = ENUM)
+        SizeEnum _enum,
+        @ProtobufProperty(index = 17, type = MESSAGE)
+        SizeMessage message,
+        @ProtobufProperty(index = 18, type = GROUP)
+        SizeGroup group,
+        @ProtobufProperty(index = 19, type = MAP, mapKeyType = STRING, mapValueType = SINT64)
+        Map<ProtobufString, Long> map,
+        @ProtobufProperty(index = 20, type = FLOAT, packed = true)
+        ArrayList<Float> packedFloat,
+        @ProtobufProperty(index = 21, type = DOUBLE, packed = true)
+        ArrayList<Double> packedDouble,
+        @ProtobufProperty(index = 22, type = BOOL, packed = true)
+        ArrayList<Boolean> packedBool,
+        @ProtobufProperty(index = 23, type = INT32, packed = true)
+        ArrayList<Integer> packedInt32,
+        @ProtobufProperty(index = 24, type = SINT32, packed = true)
+        ArrayList<Integer> packedSInt32,
+        @ProtobufProperty(index = 25, type = UINT32, packed = true)
+        ArrayList<Integer> packedUInt32,
+        @ProtobufProperty(index = 26, type = FIXED32, packed = true)
+        ArrayList<Integer> packedFixed32,
+        @ProtobufProperty(index = 27, type = SFIXED32, packed = true)
+        ArrayList<Integer> packedSFixed32,
+        @ProtobufProperty(index = 28, type = INT64, packed = true)
+        ArrayList<Long> packedInt64,
+        @ProtobufProperty(index = 29, type = SINT64, packed = true)
+        ArrayList<Long> packedSInt64,
+        @ProtobufProperty(index = 30, type = UINT64, packed = true)
+        ArrayList<Long> packedUInt64,
+        @ProtobufProperty(index = 31, type = FIXED64, packed = true)
+        ArrayList<Long> packedFixed64,
+        @ProtobufProperty(index = 32, type = SFIXED64, packed = true)
+        ArrayList<Long> packedSFixed64
+) {
+
+}
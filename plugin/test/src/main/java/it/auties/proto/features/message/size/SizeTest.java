@@ -0,0 +1,137 @@
+package it.auties.proto.features.message.size;
+
+import com.google.protobuf.CodedOutputStream;
+import it.auties.protobuf.model.ProtobufString;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// sizeOf must agree with the bytes written by encode and encodeReversed, for every type
+public class SizeTest {
+    private static final SizeMessage MESSAGE = new SizeMessage(
+            -1.5f,
+            Double.MAX_VALUE,
+            true,
+            ProtobufString.wrap("size"),
+            ByteBuffer.wrap(new byte[200]),
+            -1,
+            Integer.MIN_VALUE,
+            -1,
+            Integer.MIN_VALUE,
+            -1,
+            Long.MIN_VALUE,
+            Long.MIN_VALUE,
+            -1L,
+            -1L,
+            Long.MIN_VALUE,
+            SizeEnum.LARGE,
+            new SizeMessage(null, null, null, ProtobufString.wrap("child"), null, -300, null, null, null, null, null, null, null, null, null, SizeEnum.ZERO, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null),
+            new SizeGroup(Long.MIN_VALUE),
+            Map.of(ProtobufString.wrap("key"), -2L),
+            new ArrayList<>(List.of(0f, -1f, Float.NaN)),
+            new ArrayList<>(List.of(0d, Double.MIN_VALUE)),
+            new ArrayList<>(List.of(true, false, true)),
+            new ArrayList<>(List.of(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE)),
+            new ArrayList<>(List.of(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE)),
+            new ArrayList<>(List.of(0, 127, 128, -1)),
+            new ArrayList<>(List.of(0, -1)),
+            new ArrayList<>(List.of(Integer.MIN_VALUE)),
+            new ArrayList<>(List.of(0L, -1L, 1L << 35, Long.MIN_VALUE)),
+            new ArrayList<>(List.of(0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE)),
+            new ArrayList<>(List.of(0L, 1L << 63, 1L << 56)),
+            new ArrayList<>(List.of(0L, -1L, Long.MAX_VALUE)),
+            new ArrayList<>(List.of(Long.MIN_VALUE))
+    );
+
+    @Test
+    public void testAll() {
+        assertConsistent(MESSAGE);
+        var decoded = SizeMessageSpec.decode(SizeMessageSpec.encode(MESSAGE));
+        Assertions.assertEquals(MESSAGE.packedInt64(), decoded.packedInt64());
+        Assertions.assertEquals(MESSAGE.packedUInt64(), decoded.packedUInt64());
+        Assertions.assertEquals(MESSAGE.packedFixed64(), decoded.packedFixed64());
+        Assertions.assertEquals(MESSAGE.packedSFixed64(), decoded.packedSFixed64());
+        Assertions.assertEquals(MESSAGE.packedBool(), decoded.packedBool());
+        Assertions.assertEquals(MESSAGE.map(), decoded.map());
+        Assertions.assertEquals(MESSAGE.group(), decoded.group());
+        Assertions.assertEquals(MESSAGE._enum(), decoded._enum());
+        Assertions.assertEquals(MESSAGE.message().string(), decoded.message().string());
+        Assertions.assertEquals(MESSAGE.message().int32(), decoded.message().int32());
+        Assertions.assertEquals(MESSAGE.message()._enum(), decoded.message()._enum());
+        Assertions.assertEquals(SizeMessageSpec.sizeOf(MESSAGE), SizeMessageSpec.sizeOf(decoded));
+    }
+
+    // Each property on its own, so a mismatch points to the type that causes it
+    @Test
+    public void testEachType() throws ReflectiveOperationException {
+        var components = SizeMessage.class.getRecordComponents();
+        var types = new Class<?>[components.length];
+        for(var i = 0; i < components.length; i++) {
+            types[i] = components[i].getType();
+        }
+
+        var constructor = SizeMessage.class.getDeclaredConstructor(types);
+        for(var i = 0; i < components.length; i++) {
+            var arguments = new Object[components.length];
+            arguments[i] = components[i].getAccessor().invoke(MESSAGE);
+            var message = constructor.newInstance(arguments);
+            Assertions.assertDoesNotThrow(() -> assertConsistent(message), "Size mismatch for " + components[i].getName());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        var message = new SizeMessage(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+        Assertions.assertEquals(0, SizeMessageSpec.sizeOf(message));
+        Assertions.assertEquals(0, SizeMessageSpec.encode(message).length);
+    }
+
+    // Packed 64 bit fields must be a single length delimited block, var ints for int64 and uint64 and 8 bytes per value for fixed64
+    @Test
+    public void testPacked64() throws IOException {
+        var message = new SizeMessage(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, MESSAGE.packedInt64(), null, MESSAGE.packedUInt64(), MESSAGE.packedFixed64(), MESSAGE.packedSFixed64());
+        var bytes = new ByteArrayOutputStream();
+        var output = CodedOutputStream.newInstance(bytes);
+        writeVarIntsPacked(output, 28, message.packedInt64());
+        writeVarIntsPacked(output, 30, message.packedUInt64());
+        writeFixed64Packed(output, 31, message.packedFixed64());
+        writeFixed64Packed(output, 32, message.packedSFixed64());
+        output.flush();
+        var expected = bytes.toByteArray();
+        Assertions.assertArrayEquals(expected, SizeMessageSpec.encode(message));
+        Assertions.assertArrayEquals(expected, SizeMessageSpec.encodeReversed(message));
+        Assertions.assertEquals(expected.length, SizeMessageSpec.sizeOf(message));
+    }
+
+    private static void writeVarIntsPacked(CodedOutputStream output, int index, List<Long> values) throws IOException {
+        output.writeTag(index, 2);
+        var size = 0;
+        for(var value : values) {
+            size += CodedOutputStream.computeInt64SizeNoTag(value);
+        }
+        output.writeUInt32NoTag(size);
+        for(var value : values) {
+            output.writeInt64NoTag(value);
+        }
+    }
+
+    private static void writeFixed64Packed(CodedOutputStream output, int index, List<Long> values) throws IOException {
+        output.writeTag(index, 2);
+        output.writeUInt32NoTag(values.size() * Long.BYTES);
+        for(var value : values) {
+            output.writeFixed64NoTag(value);
+        }
+    }
+
+    private static void assertConsistent(SizeMessage message) {
+        var encoded = SizeMessageSpec.encode(message);
+        Assertions.assertEquals(SizeMessageSpec.sizeOf(message), encoded.length);
+        Assertions.assertArrayEquals(encoded, SizeMessageSpec.encodeReversed(message));
+    }
+}
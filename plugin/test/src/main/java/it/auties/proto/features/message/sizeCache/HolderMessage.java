@@ -0,0 +1,13 @@
+package it.auties.proto.features.message.sizeCache;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufType;
+
+@ProtobufMessage
+public record HolderMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.MESSAGE)
+        ValuesMessage values
+) {
+
+}
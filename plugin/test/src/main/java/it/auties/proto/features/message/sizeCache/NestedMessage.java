@@ -0,0 +1,16 @@
+package it.auties.proto.features.message.sizeCache;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufType;
+
+@ProtobufMessage
+public record NestedMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.STRING)
+        ProtobufString name,
+        @ProtobufProperty(index = 2, type = ProtobufType.MESSAGE)
+        NestedMessage child
+) {
+
+}
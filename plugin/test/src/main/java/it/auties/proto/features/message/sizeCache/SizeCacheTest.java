@@ -0,0 +1,78 @@
+package it.auties.proto.features.message.sizeCache;
+
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import it.auties.protobuf.stream.ProtobufOutputStream;
+import it.auties.protobuf.stream.ProtobufSizeCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SizeCacheTest {
+    @Test
+    public void testNestedSizes() {
+        NestedMessage message = null;
+        for(var i = 0; i < 8; i++) {
+            message = new NestedMessage(ProtobufString.wrap("level" + i), message);
+        }
+
+        var cache = new ProtobufSizeCache();
+        var size = NestedMessageSpec.sizeOf(message, cache);
+        Assertions.assertEquals(8, cache.size());
+        Assertions.assertEquals(size, cache.get(message));
+        Assertions.assertEquals(NestedMessageSpec.sizeOf(message), size);
+
+        var encoded = NestedMessageSpec.encode(message);
+        Assertions.assertEquals(size, encoded.length);
+        var decoded = NestedMessageSpec.decode(encoded);
+        Assertions.assertEquals(message, decoded);
+    }
+
+    // The sizes cached while writing a message must not be reused when the same instance is written again after a change
+    @Test
+    public void testMutatedMessage() {
+        var values = new ArrayList<>(List.of(1));
+        var message = new HolderMessage(new ValuesMessage(values));
+        var output = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toStream(output);
+        HolderMessageSpec.encode(message, stream);
+        stream.flush();
+        var firstLength = output.size();
+        Assertions.assertNull(stream.sizeCache());
+
+        values.add(300);
+        HolderMessageSpec.encode(message, stream);
+        stream.flush();
+        Assertions.assertNull(stream.sizeCache());
+
+        var written = output.toByteArray();
+        var first = Arrays.copyOfRange(written, 0, firstLength);
+        var second = Arrays.copyOfRange(written, firstLength, written.length);
+        Assertions.assertEquals(new HolderMessage(new ValuesMessage(List.of(1))), HolderMessageSpec.decode(first));
+        Assertions.assertArrayEquals(HolderMessageSpec.encode(message), second);
+        Assertions.assertEquals(message, HolderMessageSpec.decode(second));
+    }
+
+    // Same as testMutatedMessage, but the length of the top level message also depends on the cached sizes
+    @Test
+    public void testMutatedDelimited() {
+        var values = new ArrayList<>(List.of(1));
+        var message = new HolderMessage(new ValuesMessage(values));
+        var output = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toStream(output);
+        HolderMessageSpec.encodeDelimited(message, stream);
+        values.add(300);
+        HolderMessageSpec.encodeDelimited(message, stream);
+        stream.flush();
+        Assertions.assertNull(stream.sizeCache());
+
+        var input = ProtobufInputStream.fromBytes(output.toByteArray());
+        Assertions.assertEquals(new HolderMessage(new ValuesMessage(List.of(1))), HolderMessageSpec.decodeDelimited(input));
+        Assertions.assertEquals(message, HolderMessageSpec.decodeDelimited(input));
+        Assertions.assertNull(HolderMessageSpec.decodeDelimited(input));
+    }
+}
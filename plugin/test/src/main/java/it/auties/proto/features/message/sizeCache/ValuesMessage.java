@@ -0,0 +1,15 @@
+package it.auties.proto.features.message.sizeCache;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufType;
+
+import java.util.List;
+
+@ProtobufMessage
+public record ValuesMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.UINT32)
+        List<Integer> values
+) {
+
+}
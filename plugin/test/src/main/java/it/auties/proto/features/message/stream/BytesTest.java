@@ -0,0 +1,78 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.compatibility.scalar.ModernScalarMessage;
+import it.auties.proto.compatibility.scalar.ModernScalarMessageSpec;
+import it.auties.protobuf.exception.ProtobufDeserializationException;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class BytesTest {
+    private static final int PADDING = 13;
+
+    private static final ModernScalarMessage MESSAGE = new ModernScalarMessage(
+            -1,
+            Integer.MIN_VALUE,
+            -300,
+            70000,
+            Long.MIN_VALUE,
+            0x0102030405060708L,
+            Long.MIN_VALUE,
+            -1L,
+            3.5f,
+            -0.125,
+            true,
+            ProtobufString.wrap("hello"),
+            ByteBuffer.wrap(new byte[]{1, 2, 3})
+    );
+
+    // The message is surrounded by bytes that would be a valid continuation of its last var int, so reading past the end of the range would be noticed
+    @Test
+    public void testOffset() {
+        var encoded = ModernScalarMessageSpec.encode(MESSAGE);
+        var padded = new byte[encoded.length + PADDING * 2];
+        Arrays.fill(padded, (byte) 0x80);
+        System.arraycopy(encoded, 0, padded, PADDING, encoded.length);
+        var decoded = ModernScalarMessageSpec.decode(ProtobufInputStream.fromBytes(padded, PADDING, encoded.length));
+        var expected = ModernScalarMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded)));
+        Assertions.assertEquals(expected, decoded);
+        Assertions.assertEquals(MESSAGE.fixed64(), decoded.fixed64());
+        Assertions.assertEquals(MESSAGE.sfixed64(), decoded.sfixed64());
+        Assertions.assertEquals(MESSAGE.int64(), decoded.int64());
+        Assertions.assertEquals(MESSAGE._double(), decoded._double());
+        Assertions.assertEquals(MESSAGE.string(), decoded.string());
+    }
+
+    // Every prefix of the message ends in the middle of a value, or on a field boundary
+    @Test
+    public void testTruncated() {
+        var encoded = ModernScalarMessageSpec.encode(MESSAGE);
+        var padded = new byte[encoded.length + PADDING];
+        Arrays.fill(padded, (byte) 0x80);
+        System.arraycopy(encoded, 0, padded, 0, encoded.length);
+        for(var length = 0; length < encoded.length; length++) {
+            var prefix = Arrays.copyOf(encoded, length);
+            var expected = decodeOrNull(ProtobufInputStream.fromStream(new ByteArrayInputStream(prefix)));
+            var actual = decodeOrNull(ProtobufInputStream.fromBytes(padded, 0, length));
+            Assertions.assertEquals(expected, actual, "Unexpected result for a prefix of " + length + " bytes");
+        }
+    }
+
+    @Test
+    public void testInvalidRange() {
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> ProtobufInputStream.fromBytes(new byte[4], 2, 4));
+    }
+
+    private static ModernScalarMessage decodeOrNull(ProtobufInputStream inputStream) {
+        try {
+            return ModernScalarMessageSpec.decode(inputStream);
+        }catch (ProtobufDeserializationException exception) {
+            return null;
+        }
+    }
+}
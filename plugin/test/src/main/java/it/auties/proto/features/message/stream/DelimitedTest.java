@@ -0,0 +1,70 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import it.auties.protobuf.stream.ProtobufOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DelimitedTest {
+    private static final int CHUNK_SIZE = 16;
+
+    @Test
+    public void testSingle() {
+        var message = new NestedMessage(ProtobufString.wrap("message"), new NestedMessage(ProtobufString.wrap("child"), null));
+        var encoded = NestedMessageSpec.encodeDelimited(message);
+        var stream = ProtobufInputStream.fromBytes(encoded);
+        Assertions.assertEquals(message, NestedMessageSpec.decodeDelimited(stream));
+        Assertions.assertNull(NestedMessageSpec.decodeDelimited(stream));
+    }
+
+    @Test
+    public void testStream() {
+        var messages = createMessages();
+        var outputStream = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toStream(outputStream, CHUNK_SIZE);
+        for(var message : messages) {
+            NestedMessageSpec.encodeDelimited(message, stream);
+        }
+        stream.flush();
+
+        var encoded = outputStream.toByteArray();
+        var decoded = new ArrayList<NestedMessage>();
+        var inputStream = ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), CHUNK_SIZE);
+        NestedMessage message;
+        while ((message = NestedMessageSpec.decodeDelimited(inputStream)) != null) {
+            decoded.add(message);
+        }
+        Assertions.assertEquals(messages, decoded);
+        Assertions.assertEquals(messages, NestedMessageSpec.decodeDelimitedStream(ProtobufInputStream.fromBytes(encoded)).toList());
+    }
+
+    @Test
+    public void testEmptyMessages() {
+        var message = new NestedMessage(null, null);
+        var outputStream = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toStream(outputStream);
+        for(var i = 0; i < 3; i++) {
+            NestedMessageSpec.encodeDelimited(message, stream);
+        }
+        stream.flush();
+
+        var decoded = NestedMessageSpec.decodeDelimitedStream(ProtobufInputStream.fromStream(new ByteArrayInputStream(outputStream.toByteArray())));
+        Assertions.assertEquals(List.of(message, message, message), decoded.toList());
+    }
+
+    private List<NestedMessage> createMessages() {
+        var messages = new ArrayList<NestedMessage>();
+        for(var i = 0; i < 100; i++) {
+            messages.add(new NestedMessage(ProtobufString.wrap("message" + i), new NestedMessage(ProtobufString.wrap("child".repeat(i)), null)));
+        }
+        return messages;
+    }
+}
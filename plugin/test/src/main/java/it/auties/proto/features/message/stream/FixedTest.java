@@ -0,0 +1,82 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.compatibility.scalar.ModernScalarMessage;
+import it.auties.proto.compatibility.scalar.ModernScalarMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import it.auties.protobuf.stream.ProtobufOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// The byte array and buffer streams read and write fixed values as whole words, while the chunked streams still go one byte at a time
+public class FixedTest {
+    private static final ModernScalarMessage MESSAGE = new ModernScalarMessage(
+            0x01020304,
+            -2,
+            1,
+            2,
+            0x0102030405060708L,
+            Long.MIN_VALUE + 1,
+            3L,
+            4L,
+            -3.5f,
+            Math.PI,
+            false,
+            ProtobufString.wrap("fixed"),
+            ByteBuffer.wrap(new byte[0])
+    );
+
+    @Test
+    public void testWrite() {
+        var expected = encodeStream();
+        Assertions.assertArrayEquals(expected, ModernScalarMessageSpec.encode(MESSAGE));
+        Assertions.assertArrayEquals(expected, ModernScalarMessageSpec.encodeReversed(MESSAGE));
+        Assertions.assertArrayEquals(expected, encodeBuffer(ByteBuffer.allocate(expected.length)));
+        Assertions.assertArrayEquals(expected, encodeBuffer(ByteBuffer.allocateDirect(expected.length).order(ByteOrder.LITTLE_ENDIAN)));
+        for(var stream : new ProtobufOutputStream[]{ProtobufOutputStream.toGrowableBuffer(1), ProtobufOutputStream.toGrowableDirectBuffer(1)}) {
+            ModernScalarMessageSpec.encode(MESSAGE, stream);
+            var output = (ByteBuffer) stream.toOutput();
+            var actual = new byte[output.remaining()];
+            output.get(actual);
+            Assertions.assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testRead() {
+        var encoded = encodeStream();
+        var expected = ModernScalarMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded)));
+        Assertions.assertEquals(MESSAGE.fixed32(), expected.fixed32());
+        Assertions.assertEquals(MESSAGE.fixed64(), expected.fixed64());
+        Assertions.assertEquals(MESSAGE._float(), expected._float());
+        Assertions.assertEquals(MESSAGE._double(), expected._double());
+        Assertions.assertEquals(expected, ModernScalarMessageSpec.decode(encoded));
+        Assertions.assertEquals(expected, ModernScalarMessageSpec.decode(ProtobufInputStream.fromBuffer(ByteBuffer.wrap(encoded))));
+        Assertions.assertEquals(expected, ModernScalarMessageSpec.decode(ProtobufInputStream.fromBuffer(ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN))));
+        var direct = ByteBuffer.allocateDirect(encoded.length);
+        direct.put(encoded);
+        direct.flip();
+        Assertions.assertEquals(expected, ModernScalarMessageSpec.decode(ProtobufInputStream.fromBuffer(direct)));
+    }
+
+    private static byte[] encodeStream() {
+        var outputStream = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toStream(outputStream);
+        ModernScalarMessageSpec.encode(MESSAGE, stream);
+        stream.toOutput();
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] encodeBuffer(ByteBuffer buffer) {
+        ModernScalarMessageSpec.encode(MESSAGE, ProtobufOutputStream.toBuffer(buffer));
+        buffer.flip();
+        var result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+}
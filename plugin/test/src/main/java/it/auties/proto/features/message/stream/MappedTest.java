@@ -0,0 +1,80 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.features.message.packed.PackedMessage;
+import it.auties.proto.features.message.packed.PackedMessageSpec;
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedTest {
+    private static final NestedMessage MESSAGE = new NestedMessage(
+            ProtobufString.wrap("a".repeat(1000)),
+            new NestedMessage(ProtobufString.wrap("child"), new NestedMessage(ProtobufString.wrap("b".repeat(20)), null))
+    );
+
+    @Test
+    public void testFile() throws IOException {
+        var file = Files.createTempFile("protobuf", ".bin");
+        try {
+            Files.write(file, NestedMessageSpec.encode(MESSAGE));
+            try(var stream = ProtobufInputStream.fromFile(file)) {
+                Assertions.assertEquals(MESSAGE, NestedMessageSpec.decode(stream));
+            }
+        }finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFileVarInts() throws IOException {
+        var message = new PackedMessage(new ArrayList<>(List.of(0, 1, 127, 128, 300, 70000, Integer.MAX_VALUE, -1, Integer.MIN_VALUE)));
+        var file = Files.createTempFile("protobuf", ".bin");
+        try {
+            Files.write(file, PackedMessageSpec.encode(message));
+            try(var stream = ProtobufInputStream.fromFile(file)) {
+                Assertions.assertEquals(message.content(), PackedMessageSpec.decode(stream).content());
+            }
+        }finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The file is closed with the stream, while the strings that were already read are still views of the mapping
+    @Test
+    public void testClose() throws IOException {
+        var file = Files.createTempFile("protobuf", ".bin");
+        try {
+            Files.write(file, NestedMessageSpec.encode(MESSAGE));
+            NestedMessage decoded;
+            try(var stream = ProtobufInputStream.fromFile(file)) {
+                decoded = NestedMessageSpec.decode(stream);
+            }
+            Assertions.assertEquals(MESSAGE, decoded);
+
+            var closed = ProtobufInputStream.fromFile(file);
+            closed.close();
+            Assertions.assertThrows(UncheckedIOException.class, () -> NestedMessageSpec.decode(closed));
+        }finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testBuffer() {
+        var encoded = NestedMessageSpec.encode(MESSAGE);
+        Assertions.assertEquals(MESSAGE, NestedMessageSpec.decode(ProtobufInputStream.fromBuffer(ByteBuffer.wrap(encoded))));
+        var direct = ByteBuffer.allocateDirect(encoded.length);
+        direct.put(0, encoded);
+        Assertions.assertEquals(MESSAGE, NestedMessageSpec.decode(ProtobufInputStream.fromBuffer(direct)));
+    }
+}
@@ -0,0 +1,149 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class OutputStreamTest {
+    private static final int CHUNK_SIZE = 16;
+
+    private static final NestedMessage MESSAGE = new NestedMessage(
+            ProtobufString.wrap("a".repeat(1000)),
+            new NestedMessage(ProtobufString.wrap("child"), new NestedMessage(ProtobufString.wrap("b".repeat(20)), null))
+    );
+
+    @Test
+    public void testStream() {
+        var outputStream = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toStream(outputStream, CHUNK_SIZE);
+        NestedMessageSpec.encode(MESSAGE, stream);
+        stream.toOutput();
+        Assertions.assertArrayEquals(NestedMessageSpec.encode(MESSAGE), outputStream.toByteArray());
+    }
+
+    @Test
+    public void testChannel() {
+        var outputStream = new ByteArrayOutputStream();
+        var stream = ProtobufOutputStream.toChannel(Channels.newChannel(outputStream), CHUNK_SIZE);
+        NestedMessageSpec.encode(MESSAGE, stream);
+        stream.flush();
+        Assertions.assertArrayEquals(NestedMessageSpec.encode(MESSAGE), outputStream.toByteArray());
+    }
+
+    @Test
+    public void testGatheringChannel() throws IOException {
+        var file = Files.createTempFile("protobuf", ".bin");
+        try(var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            var stream = ProtobufOutputStream.toChannel(channel, CHUNK_SIZE);
+            NestedMessageSpec.encode(MESSAGE, stream);
+            stream.flush();
+            Assertions.assertArrayEquals(NestedMessageSpec.encode(MESSAGE), Files.readAllBytes(file));
+        }finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testAsynchronousChannel() throws IOException, ExecutionException, InterruptedException {
+        var expected = NestedMessageSpec.encode(MESSAGE);
+        try(var server = AsynchronousServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+            var client = AsynchronousSocketChannel.open()) {
+            var accepted = server.accept();
+            client.connect(server.getLocalAddress()).get();
+            try(var connection = accepted.get()) {
+                var stream = ProtobufOutputStream.toChannel(client, CHUNK_SIZE);
+                NestedMessageSpec.encode(MESSAGE, stream);
+                stream.flush();
+                var received = ByteBuffer.allocate(expected.length);
+                while (received.hasRemaining()) {
+                    connection.read(received).get();
+                }
+                Assertions.assertArrayEquals(expected, received.array());
+            }
+        }
+    }
+
+    // Many chunks and payloads bigger than a chunk, more than the socket can buffer, so writes complete while the next chunk is filled
+    @Test
+    public void testAsynchronousChannelPipelined() throws IOException, ExecutionException, InterruptedException {
+        var encoded = NestedMessageSpec.encode(MESSAGE);
+        var count = 4096;
+        try(var server = AsynchronousServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+            var client = AsynchronousSocketChannel.open()) {
+            var accepted = server.accept();
+            client.connect(server.getLocalAddress()).get();
+            try(var connection = accepted.get()) {
+                var received = ByteBuffer.allocate(encoded.length * count);
+                var reader = CompletableFuture.runAsync(() -> {
+                    try {
+                        while (received.hasRemaining()) {
+                            connection.read(received).get();
+                        }
+                    } catch (InterruptedException | ExecutionException exception) {
+                        throw new RuntimeException(exception);
+                    }
+                });
+                var stream = ProtobufOutputStream.toChannel(client, CHUNK_SIZE * 4);
+                for(var i = 0; i < count; i++) {
+                    NestedMessageSpec.encode(MESSAGE, stream);
+                }
+                stream.toOutput();
+                reader.get();
+                for(var i = 0; i < count; i++) {
+                    Assertions.assertArrayEquals(encoded, Arrays.copyOfRange(received.array(), i * encoded.length, (i + 1) * encoded.length));
+                }
+            }
+        }
+    }
+
+    // The unboxed overloads must produce the same bytes as the boxed ones, a null boxed value writes nothing
+    @Test
+    public void testScalarOverloads() {
+        var primitive = new ByteArrayOutputStream();
+        var primitiveStream = ProtobufOutputStream.toStream(primitive);
+        primitiveStream.writeInt32(1, -300);
+        primitiveStream.writeUInt32(2, 300);
+        primitiveStream.writeInt64(3, Long.MIN_VALUE);
+        primitiveStream.writeUInt64(4, 1L << 40);
+        primitiveStream.writeBool(5, true);
+        primitiveStream.toOutput();
+
+        var boxed = new ByteArrayOutputStream();
+        var boxedStream = ProtobufOutputStream.toStream(boxed);
+        boxedStream.writeInt32(1, Integer.valueOf(-300));
+        boxedStream.writeUInt32(2, Integer.valueOf(300));
+        boxedStream.writeInt64(3, Long.valueOf(Long.MIN_VALUE));
+        boxedStream.writeUInt64(4, Long.valueOf(1L << 40));
+        boxedStream.writeBool(5, Boolean.TRUE);
+        boxedStream.writeInt32(6, (Integer) null);
+        boxedStream.writeInt64(7, (Long) null);
+        boxedStream.writeBool(8, (Boolean) null);
+        boxedStream.toOutput();
+        Assertions.assertArrayEquals(primitive.toByteArray(), boxed.toByteArray());
+
+        var reversedStream = ProtobufOutputStream.toReversedBytes();
+        reversedStream.writeBool(5, true);
+        reversedStream.writeUInt64(4, 1L << 40);
+        reversedStream.writeInt64(3, Long.MIN_VALUE);
+        reversedStream.writeUInt32(2, 300);
+        reversedStream.writeInt32(1, -300);
+        Assertions.assertArrayEquals(primitive.toByteArray(), reversedStream.toOutput());
+    }
+}
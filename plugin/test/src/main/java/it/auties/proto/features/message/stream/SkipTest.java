@@ -0,0 +1,92 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.features.message.missing.DeserializableMessage;
+import it.auties.proto.features.message.missing.DeserializableMessageSpec;
+import it.auties.protobuf.exception.ProtobufDeserializationException;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+public class SkipTest {
+    private static final int CHUNK_SIZE = 16;
+    private static final DeserializableMessage MESSAGE = new DeserializableMessage(ProtobufString.wrap("hello"));
+
+    @Test
+    public void testBytes() {
+        var encoded = encodeUnknownFields();
+        Assertions.assertEquals(MESSAGE, DeserializableMessageSpec.decode(ProtobufInputStream.fromBytes(encoded)));
+    }
+
+    @Test
+    public void testStream() {
+        var encoded = encodeUnknownFields();
+        Assertions.assertEquals(MESSAGE, DeserializableMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), CHUNK_SIZE)));
+    }
+
+    @Test
+    public void testBuffer() {
+        var encoded = encodeUnknownFields();
+        var buffer = ByteBuffer.allocateDirect(encoded.length);
+        buffer.put(encoded);
+        buffer.flip();
+        Assertions.assertEquals(MESSAGE, DeserializableMessageSpec.decode(ProtobufInputStream.fromBuffer(buffer)));
+    }
+
+    @Test
+    public void testFile() throws IOException {
+        var file = Files.createTempFile("protobuf", ".bin");
+        try {
+            Files.write(file, encodeUnknownFields());
+            try(var stream = ProtobufInputStream.fromFile(file)) {
+                Assertions.assertEquals(MESSAGE, DeserializableMessageSpec.decode(stream));
+            }
+        }finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testTruncated() {
+        var encoded = new byte[]{0x2A, 100, 1, 2, 3};
+        Assertions.assertThrows(ProtobufDeserializationException.class, () -> DeserializableMessageSpec.decode(ProtobufInputStream.fromBytes(encoded)));
+        Assertions.assertThrows(ProtobufDeserializationException.class, () -> DeserializableMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), CHUNK_SIZE)));
+        Assertions.assertThrows(ProtobufDeserializationException.class, () -> DeserializableMessageSpec.decode(ProtobufInputStream.fromBuffer(ByteBuffer.wrap(encoded))));
+    }
+
+    // DeserializableMessage only knows about index 3, so every other field must be skipped
+    private static byte[] encodeUnknownFields() {
+        var output = new ByteArrayOutputStream();
+        // Index 1, var int with the maximum length
+        output.write(0x08);
+        for(var i = 0; i < 9; i++) {
+            output.write(0xFF);
+        }
+        output.write(0x01);
+        // Index 2, fixed64
+        output.write(0x11);
+        output.writeBytes(new byte[Long.BYTES]);
+        // Index 4, fixed32
+        output.write(0x25);
+        output.writeBytes(new byte[Integer.BYTES]);
+        // Index 5, length delimited bigger than the chunk size
+        output.write(0x2A);
+        output.write(100);
+        output.writeBytes(new byte[100]);
+        // Index 6, group with a var int and a length delimited value
+        output.write(0x33);
+        output.writeBytes(new byte[]{0x08, (byte) 0x96, 0x01, 0x12, 2, 'h', 'i'});
+        output.write(0x34);
+        // Index 3, the only known field
+        output.write(0x1A);
+        output.write(5);
+        output.writeBytes("hello".getBytes());
+        return output.toByteArray();
+    }
+}
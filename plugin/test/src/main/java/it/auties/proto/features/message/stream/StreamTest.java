@@ -0,0 +1,66 @@
+package it.auties.proto.features.message.stream;
+
+import it.auties.proto.features.message.packed.PackedMessage;
+import it.auties.proto.features.message.packed.PackedMessageSpec;
+import it.auties.proto.features.message.sizeCache.NestedMessage;
+import it.auties.proto.features.message.sizeCache.NestedMessageSpec;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamTest {
+    private static final int CHUNK_SIZE = 16;
+
+    @Test
+    public void testNested() {
+        NestedMessage message = null;
+        for(var i = 0; i < 8; i++) {
+            message = new NestedMessage(ProtobufString.wrap("level" + i), message);
+        }
+
+        var encoded = NestedMessageSpec.encode(message);
+        Assertions.assertEquals(message, NestedMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded))));
+        Assertions.assertEquals(message, NestedMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), CHUNK_SIZE)));
+    }
+
+    @Test
+    public void testLargeString() {
+        var message = new NestedMessage(ProtobufString.wrap("a".repeat(1000)), new NestedMessage(ProtobufString.wrap("b".repeat(100)), null));
+        var encoded = NestedMessageSpec.encode(message);
+        Assertions.assertEquals(message, NestedMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), CHUNK_SIZE)));
+    }
+
+    @Test
+    public void testVarInts() {
+        var message = new PackedMessage(new ArrayList<>(List.of(0, 1, 127, 128, 300, 70000, Integer.MAX_VALUE, -1, Integer.MIN_VALUE)));
+        var encoded = PackedMessageSpec.encode(message);
+        Assertions.assertEquals(message.content(), PackedMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), CHUNK_SIZE)).content());
+    }
+
+    // An input stream that returns a single byte for each read, so every value spans more than one fill
+    @Test
+    public void testSlowInputStream() {
+        var message = new NestedMessage(ProtobufString.wrap("a".repeat(40)), new NestedMessage(ProtobufString.wrap("child"), null));
+        var encoded = NestedMessageSpec.encode(message);
+        var inputStream = new ByteArrayInputStream(encoded) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        Assertions.assertEquals(message, NestedMessageSpec.decode(ProtobufInputStream.fromStream(inputStream, CHUNK_SIZE)));
+    }
+
+    @Test
+    public void testEmpty() {
+        var decoded = NestedMessageSpec.decode(ProtobufInputStream.fromStream(InputStream.nullInputStream()));
+        Assertions.assertNull(decoded.name());
+        Assertions.assertNull(decoded.child());
+    }
+}
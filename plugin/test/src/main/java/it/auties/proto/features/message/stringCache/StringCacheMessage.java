@@ -0,0 +1,22 @@
+package it.auties.proto.features.message.stringCache;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.builtin.ProtobufRepeatedMixin;
+import it.auties.protobuf.builtin.ProtobufStringCacheMixin;
+
+import java.util.List;
+
+import static it.auties.protobuf.model.ProtobufType.STRING;
+
+@ProtobufMessage
+public record StringCacheMessage(
+        @ProtobufProperty(index = 1, type = STRING, mixins = ProtobufStringCacheMixin.class)
+        String country,
+        @ProtobufProperty(index = 2, type = STRING, mixins = {ProtobufStringCacheMixin.class, ProtobufRepeatedMixin.class})
+        List<String> events,
+        @ProtobufProperty(index = 3, type = STRING)
+        String uncached
+) {
+
+}
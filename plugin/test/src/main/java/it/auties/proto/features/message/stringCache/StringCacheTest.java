@@ -0,0 +1,83 @@
+package it.auties.proto.features.message.stringCache;
+
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufStringCache;
+import it.auties.protobuf.stream.ProtobufInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StringCacheTest {
+    private static final StringCacheMessage MESSAGE = new StringCacheMessage(
+            "IT",
+            new ArrayList<>(List.of("click", "view", "click")),
+            "IT"
+    );
+
+    // Properties that use the mixin share the same String instance across decodes, the others don't
+    @Test
+    public void testMixin() {
+        var encoded = StringCacheMessageSpec.encode(MESSAGE);
+        var first = StringCacheMessageSpec.decode(encoded);
+        var second = StringCacheMessageSpec.decode(encoded);
+        var buffer = StringCacheMessageSpec.decode(ProtobufInputStream.fromBuffer(ByteBuffer.wrap(encoded)));
+        Assertions.assertEquals(MESSAGE, first);
+        Assertions.assertEquals(MESSAGE, buffer);
+        Assertions.assertSame(first.country(), second.country());
+        Assertions.assertSame(first.country(), buffer.country());
+        Assertions.assertSame(first.events().get(0), first.events().get(2));
+        Assertions.assertSame(first.events().get(1), second.events().get(1));
+        Assertions.assertNotSame(first.uncached(), second.uncached());
+    }
+
+    @Test
+    public void testEviction() {
+        var cache = new ProtobufStringCache(1, 16);
+        var first = cache.get(lazy("first"));
+        Assertions.assertSame(first, cache.get(lazy("first")));
+        var second = cache.get(lazy("second"));
+        Assertions.assertEquals("second", second);
+        Assertions.assertNotSame(first, cache.get(lazy("first")));
+    }
+
+    @Test
+    public void testMaxLength() {
+        var cache = new ProtobufStringCache(16, 4);
+        Assertions.assertSame(cache.get(lazy("four")), cache.get(lazy("four")));
+        var large = cache.get(lazy("large"));
+        Assertions.assertEquals("large", large);
+        Assertions.assertNotSame(large, cache.get(lazy("large")));
+    }
+
+    // The position of a lazy buffer must not change, so the string can still be hashed and written
+    @Test
+    public void testBuffer() {
+        var cache = new ProtobufStringCache(16, 16);
+        var bytes = "日本".getBytes(StandardCharsets.UTF_8);
+        var value = ProtobufString.lazy(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+        var hash = value.hashCode();
+        Assertions.assertEquals("日本", cache.get(value));
+        Assertions.assertEquals(hash, value.hashCode());
+        Assertions.assertEquals(bytes.length, value.encodedLength());
+        Assertions.assertSame(cache.get(value), cache.get(ProtobufString.lazy(bytes, 0, bytes.length)));
+        Assertions.assertNull(cache.get(null));
+    }
+
+    @Test
+    public void testCapacity() {
+        Assertions.assertEquals(1, new ProtobufStringCache(1, 0).capacity());
+        Assertions.assertEquals(8, new ProtobufStringCache(5, 0).capacity());
+        Assertions.assertEquals(8, new ProtobufStringCache(8, 0).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ProtobufStringCache(0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ProtobufStringCache((1 << 30) + 1, 0));
+    }
+
+    private static ProtobufString lazy(String value) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ProtobufString.lazy(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,18 @@
+package it.auties.proto.features.message.unknownFields;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.annotation.ProtobufUnknownFields;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufType;
+import it.auties.protobuf.model.ProtobufUnknownFieldSet;
+
+@ProtobufMessage
+public record RawMessage(
+        @ProtobufProperty(index = 1, type = ProtobufType.STRING)
+        ProtobufString value,
+        @ProtobufUnknownFields
+        ProtobufUnknownFieldSet unknownFields
+) {
+
+}
@@ -2,9 +2,15 @@ package it.auties.proto.features.message.unknownFields;
 
 
 import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.model.ProtobufWireType;
+import it.auties.protobuf.stream.ProtobufInputStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+
 public class UnknownFieldsTest {
     @Test
     public void testSimple() {
@@ -40,4 +46,61 @@ public class UnknownFieldsTest {
         var unknownField = (Number) baseMessage.unknownFields().get(0);
         Assertions.assertEquals(unknownField.intValue(), extendedMessage.extended());
     }
+
+    @Test
+    public void testRepeated() {
+        var encoded = new byte[]{0x10, 1, 0x10, 2, 0x10, 3};
+        var baseMessage = SimpleMessageSpec.decode(encoded);
+        var unknownField = (List<?>) baseMessage.unknownFields().get(2);
+        Assertions.assertEquals(List.of(1L, 2L, 3L), unknownField);
+    }
+
+    @Test
+    public void testRepeatedGroup() {
+        var encoded = new byte[]{0x13, 0x08, 1, 0x08, 2, 0x12, 2, 'h', 'i', 0x14};
+        var baseMessage = SimpleMessageSpec.decode(encoded);
+        var group = (Map<?, ?>) baseMessage.unknownFields().get(2);
+        Assertions.assertEquals(List.of(1L, 2L), group.get(1));
+    }
+
+    @Test
+    public void testRaw() {
+        var encoded = createRawFields();
+        var baseMessage = RawMessageSpec.decode(encoded);
+        Assertions.assertEquals("Hello", baseMessage.value().toString());
+        var unknownFields = baseMessage.unknownFields();
+        Assertions.assertEquals(5, unknownFields.size());
+        Assertions.assertEquals(2, unknownFields.index(0));
+        Assertions.assertEquals(ProtobufWireType.WIRE_TYPE_VAR_INT, unknownFields.wireType(0));
+        Assertions.assertEquals(2, unknownFields.index(1));
+        Assertions.assertEquals(ProtobufWireType.WIRE_TYPE_START_OBJECT, unknownFields.wireType(4));
+        Assertions.assertArrayEquals(encoded, RawMessageSpec.encode(baseMessage));
+        Assertions.assertArrayEquals(encoded, RawMessageSpec.encodeReversed(baseMessage));
+    }
+
+    @Test
+    public void testRawStream() {
+        var encoded = createRawFields();
+        var baseMessage = RawMessageSpec.decode(ProtobufInputStream.fromStream(new ByteArrayInputStream(encoded), 16));
+        Assertions.assertEquals(RawMessageSpec.decode(encoded), baseMessage);
+        Assertions.assertArrayEquals(encoded, RawMessageSpec.encode(baseMessage));
+    }
+
+    // The known field comes first, so the encoded message is the same as the input
+    private static byte[] createRawFields() {
+        var known = new byte[]{0x0A, 5, 'H', 'e', 'l', 'l', 'o'};
+        var varInts = new byte[]{0x10, (byte) 0x96, 0x01, 0x10, 0x02};
+        var fixed = new byte[]{0x1D, 1, 2, 3, 4};
+        var delimited = new byte[40];
+        delimited[0] = 0x22;
+        delimited[1] = 38;
+        var group = new byte[]{0x2B, 0x08, 0x01, 0x12, 2, 'h', 'i', 0x2C};
+        var result = new byte[known.length + varInts.length + fixed.length + delimited.length + group.length];
+        var offset = 0;
+        for(var part : List.of(known, varInts, fixed, delimited, group)) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
 }
@@ -0,0 +1,105 @@
+package it.auties.proto.features.message.utf8;
+
+import it.auties.protobuf.model.ProtobufString;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Lazy strings are hashed and compared with wrapped strings using their bytes, so every variant must agree with the UTF-8 encoding of the value
+public class EqualityTest {
+    private static final String[] VALUES = {
+            "",
+            "a",
+            "abcd",
+            "abcdefghi",
+            "àèìòù",
+            "日本語",
+            "emoji 😀",
+            "unpaired \uD800 high",
+            "trailing \uD83D"
+    };
+
+    @Test
+    public void testHashCode() {
+        for(var value : VALUES) {
+            var expected = Arrays.hashCode(value.getBytes(StandardCharsets.UTF_8));
+            for(var string : variants(value)) {
+                Assertions.assertEquals(expected, string.hashCode(), "Unexpected hash for " + value);
+                Assertions.assertEquals(expected, string.hashCode(), "Unexpected cached hash for " + value);
+            }
+        }
+    }
+
+    @Test
+    public void testEquals() {
+        for(var value : VALUES) {
+            for(var first : variants(value)) {
+                for(var second : variants(value)) {
+                    Assertions.assertEquals(first, second, "Expected equal strings for " + value);
+                }
+            }
+
+            for(var other : VALUES) {
+                if(other.equals(value)) {
+                    continue;
+                }
+
+                for(var first : variants(value)) {
+                    for(var second : variants(other)) {
+                        Assertions.assertNotEquals(first, second, "Expected different strings for " + value + " and " + other);
+                    }
+                }
+            }
+        }
+    }
+
+    // Comparing with a wrapped string must not decode the lazy one
+    @Test
+    public void testDecoded() {
+        var lazy = variants("日本語")[0];
+        Assertions.assertEquals(lazy, ProtobufString.wrap("日本語"));
+        Assertions.assertEquals("日本語", lazy.toString());
+        Assertions.assertEquals(lazy, ProtobufString.wrap("日本語"));
+        Assertions.assertNotEquals(lazy, ProtobufString.wrap("日本"));
+    }
+
+    // Malformed bytes decode to a replacement char, but they are still different from its encoding
+    @Test
+    public void testMalformed() {
+        var replacement = ProtobufString.wrap("\uFFFD");
+        var bytes = new byte[]{(byte) 0xFF};
+        var direct = ByteBuffer.allocateDirect(1);
+        direct.put(bytes);
+        direct.flip();
+        var strings = new ProtobufString[]{
+                ProtobufString.lazy(bytes, 0, bytes.length),
+                ProtobufString.lazy(direct.asReadOnlyBuffer())
+        };
+        for(var string : strings) {
+            Assertions.assertNotEquals(string, replacement);
+            Assertions.assertEquals("\uFFFD", string.toString());
+            Assertions.assertNotEquals(string, replacement);
+            Assertions.assertNotEquals(replacement, string);
+        }
+    }
+
+    private static ProtobufString[] variants(String value) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        var padded = new byte[bytes.length + 6];
+        Arrays.fill(padded, (byte) 'x');
+        System.arraycopy(bytes, 0, padded, 3, bytes.length);
+        var direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.flip();
+        return new ProtobufString[]{
+                ProtobufString.lazy(bytes, 0, bytes.length),
+                ProtobufString.lazy(padded, 3, bytes.length),
+                ProtobufString.lazy(ByteBuffer.wrap(padded, 3, bytes.length).asReadOnlyBuffer()),
+                ProtobufString.lazy(direct.asReadOnlyBuffer()),
+                ProtobufString.wrap(value)
+        };
+    }
+}
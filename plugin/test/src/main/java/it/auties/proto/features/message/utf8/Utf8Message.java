@@ -0,0 +1,17 @@
+package it.auties.proto.features.message.utf8;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+import it.auties.protobuf.model.ProtobufString;
+
+import static it.auties.protobuf.model.ProtobufType.STRING;
+
+@ProtobufMessage
+public record Utf8Message(
+        @ProtobufProperty(index = 1, type = STRING)
+        ProtobufString text,
+        @ProtobufProperty(index = 2, type = STRING)
+        String plain
+) {
+
+}
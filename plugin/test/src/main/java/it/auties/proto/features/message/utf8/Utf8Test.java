@@ -0,0 +1,103 @@
+package it.auties.proto.features.message.utf8;
+
+import com.google.protobuf.CodedOutputStream;
+import it.auties.protobuf.model.ProtobufString;
+import it.auties.protobuf.stream.ProtobufOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+// Strings are encoded directly in the output, so every stream must produce the same bytes as String.getBytes
+public class Utf8Test {
+    private static final String[] VALUES = {
+            "",
+            "ascii",
+            "àèìòù",
+            "日本語",
+            "emoji 😀",
+            "unpaired \uD800 high",
+            "unpaired \uDC00 low",
+            "trailing \uD83D",
+            "a".repeat(42), // Ascii, the length takes a byte even if every char took three
+            "日".repeat(42),
+            "ù".repeat(100), // The length could take one or two bytes
+            "x".repeat(20_000) + "日" // Larger than a chunk
+    };
+
+    @Test
+    public void testEncode() throws IOException {
+        for(var value : VALUES) {
+            var message = new Utf8Message(ProtobufString.wrap(value), value);
+            var expected = encodeReference(value);
+            Assertions.assertArrayEquals(expected, Utf8MessageSpec.encode(message), "Unexpected bytes for " + value);
+            Assertions.assertArrayEquals(expected, Utf8MessageSpec.encodeReversed(message), "Unexpected reversed bytes for " + value);
+            Assertions.assertArrayEquals(expected, encodeStreams(message), "Unexpected stream bytes for " + value);
+            Assertions.assertEquals(expected.length, Utf8MessageSpec.sizeOf(message));
+            var decoded = Utf8MessageSpec.decode(expected);
+            var jdk = new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            Assertions.assertEquals(jdk, decoded.text().toString());
+            Assertions.assertEquals(jdk, decoded.plain());
+        }
+    }
+
+    // The length computed by the size pass is reused when the string is written
+    @Test
+    public void testEncodedLength() {
+        for(var value : VALUES) {
+            var string = ProtobufString.wrap(value);
+            Assertions.assertEquals(value.getBytes(StandardCharsets.UTF_8).length, string.encodedLength());
+            Assertions.assertEquals(value.getBytes(StandardCharsets.UTF_8).length, ProtobufOutputStream.getUtf8Size(value));
+        }
+    }
+
+    private static byte[] encodeStreams(Utf8Message message) {
+        var expected = Utf8MessageSpec.encode(message);
+        var results = new byte[5][];
+
+        var stream = new ByteArrayOutputStream();
+        var streamOutput = ProtobufOutputStream.toStream(stream, 16);
+        Utf8MessageSpec.encode(message, streamOutput);
+        streamOutput.toOutput();
+        results[0] = stream.toByteArray();
+
+        var channel = new ByteArrayOutputStream();
+        var channelOutput = ProtobufOutputStream.toChannel(Channels.newChannel(channel), 16);
+        Utf8MessageSpec.encode(message, channelOutput);
+        channelOutput.toOutput();
+        results[1] = channel.toByteArray();
+
+        results[2] = encodeBuffer(message, ByteBuffer.allocate(expected.length));
+        results[3] = encodeBuffer(message, ByteBuffer.allocateDirect(expected.length));
+
+        var growable = ProtobufOutputStream.toGrowableDirectBuffer(1);
+        Utf8MessageSpec.encode(message, growable);
+        results[4] = growable.toByteArray();
+
+        for(var result : results) {
+            Assertions.assertArrayEquals(expected, result);
+        }
+        return expected;
+    }
+
+    private static byte[] encodeBuffer(Utf8Message message, ByteBuffer buffer) {
+        Utf8MessageSpec.encode(message, ProtobufOutputStream.toBuffer(buffer));
+        buffer.flip();
+        var result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    private static byte[] encodeReference(String value) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var output = CodedOutputStream.newInstance(bytes);
+        output.writeString(1, value);
+        output.writeString(2, value);
+        output.flush();
+        return bytes.toByteArray();
+    }
+}
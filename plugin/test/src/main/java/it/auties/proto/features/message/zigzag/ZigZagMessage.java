@@ -0,0 +1,27 @@
+package it.auties.proto.features.message.zigzag;
+
+import it.auties.protobuf.annotation.ProtobufMessage;
+import it.auties.protobuf.annotation.ProtobufProperty;
+
+import java.util.ArrayList;
+
+import static it.auties.protobuf.model.ProtobufType.SINT32;
+import static it.auties.protobuf.model.ProtobufType.SINT64;
+
+@ProtobufMessage
+public record ZigZagMessage(
+        @ProtobufProperty(index = 1, type = SINT32)
+        int sint32,
+        @ProtobufProperty(index = 2, type = SINT64)
+        long sint64,
+        @ProtobufProperty(index = 3, type = SINT32, packed = true)
+        ArrayList<Integer> packed32,
+        @ProtobufProperty(index = 4, type = SINT64, packed = true)
+        long[] packed64,
+        @ProtobufProperty(index = 5, type = SINT64)
+        ArrayList<Long> unpacked64,
+        @ProtobufProperty(index = 6, type = SINT32)
+        Integer boxed32
+) {
+
+}
@@ -0,0 +1,79 @@
+package it.auties.proto.features.message.zigzag;
+
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ZigZagTest {
+    private static final ZigZagMessage MESSAGE = new ZigZagMessage(
+            -1,
+            Long.MIN_VALUE,
+            new ArrayList<>(List.of(0, -1, 1, -64, 64, Integer.MIN_VALUE, Integer.MAX_VALUE)),
+            new long[]{-2, 2, Long.MAX_VALUE, Long.MIN_VALUE},
+            new ArrayList<>(List.of(-300L, 300L)),
+            Integer.MIN_VALUE
+    );
+
+    // The expected bytes are produced by the reference implementation
+    @Test
+    public void testEncode() throws IOException {
+        var expected = encodeReference();
+        Assertions.assertArrayEquals(expected, ZigZagMessageSpec.encode(MESSAGE));
+        Assertions.assertArrayEquals(expected, ZigZagMessageSpec.encodeReversed(MESSAGE));
+        Assertions.assertEquals(expected.length, ZigZagMessageSpec.sizeOf(MESSAGE));
+    }
+
+    @Test
+    public void testDecode() throws IOException {
+        var decoded = ZigZagMessageSpec.decode(encodeReference());
+        Assertions.assertEquals(MESSAGE.sint32(), decoded.sint32());
+        Assertions.assertEquals(MESSAGE.sint64(), decoded.sint64());
+        Assertions.assertEquals(MESSAGE.packed32(), decoded.packed32());
+        Assertions.assertArrayEquals(MESSAGE.packed64(), decoded.packed64());
+        Assertions.assertEquals(MESSAGE.unpacked64(), decoded.unpacked64());
+        Assertions.assertEquals(MESSAGE.boxed32(), decoded.boxed32());
+    }
+
+    // Small negative values must take a single byte, instead of the ten bytes of a negative int32
+    @Test
+    public void testCompact() {
+        var encoded = ZigZagMessageSpec.encode(new ZigZagMessage(-1, -1, null, null, null, null));
+        Assertions.assertEquals(4, encoded.length);
+    }
+
+    private static byte[] encodeReference() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var output = CodedOutputStream.newInstance(bytes);
+        output.writeSInt32(1, MESSAGE.sint32());
+        output.writeSInt64(2, MESSAGE.sint64());
+        output.writeTag(3, 2);
+        var packed32Size = 0;
+        for(var value : MESSAGE.packed32()) {
+            packed32Size += CodedOutputStream.computeSInt32SizeNoTag(value);
+        }
+        output.writeUInt32NoTag(packed32Size);
+        for(var value : MESSAGE.packed32()) {
+            output.writeSInt32NoTag(value);
+        }
+        output.writeTag(4, 2);
+        var packed64Size = 0;
+        for(var value : MESSAGE.packed64()) {
+            packed64Size += CodedOutputStream.computeSInt64SizeNoTag(value);
+        }
+        output.writeUInt32NoTag(packed64Size);
+        for(var value : MESSAGE.packed64()) {
+            output.writeSInt64NoTag(value);
+        }
+        for(var value : MESSAGE.unpacked64()) {
+            output.writeSInt64(5, value);
+        }
+        output.writeSInt32(6, MESSAGE.boxed32());
+        output.flush();
+        return bytes.toByteArray();
+    }
+}